@@ -1,26 +1,95 @@
 package fr.milekat.utils;
 
+import fr.milekat.utils.configs.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.yaml.snakeyaml.Yaml;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("unused")
 public class Configs {
-    private final File fileConfig;
+    /** Default delay between two checks of the layers for changes, while hot reload is disabled (in milliseconds) */
+    public static final long DEFAULT_CHECK_INTERVAL_MILLIS = 1000L;
+
+    /** Layers of the configuration, from the lowest to the highest priority */
+    private final ConfigSource[] sources;
+
+    /**
+     * Last merged snapshot of the layers, swapped atomically when a layer changes.
+     * Readers never lock: they either reuse the current snapshot or race to publish a fresh one.
+     */
+    private final AtomicReference<ConfigSnapshot> snapshot = new AtomicReference<>();
+
+    /** Listeners notified when a new snapshot changes the nodes they are subscribed to */
+    private final List<Subscription> listeners = new CopyOnWriteArrayList<>();
+
+    /** Watchers of the file layers, set while hot reload is enabled */
+    private volatile List<ConfigWatcher> watchers;
+
+    /** Delay between two checks of the layers for changes (in nanoseconds) */
+    private volatile long checkIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_CHECK_INTERVAL_MILLIS);
+
+    /** When the layers were last checked for changes ({@link System#nanoTime()}) */
+    private volatile long checkedAt;
+
+    private record Subscription(@NotNull String prefix, @NotNull ConfigListener listener) {
+        private boolean matches(@NotNull String path) {
+            return prefix.isEmpty() || (path.startsWith(prefix) &&
+                    (path.length() == prefix.length() || path.charAt(prefix.length()) == '.'));
+        }
+    }
 
     /**
      * Constructs a new Configs instance with the specified file.
+     * <p>The file is parsed lazily on the first read, then only again when its modification time or size changes,
+     * which is checked at most once per {@link #setCheckInterval(long) check interval}.</p>
      *
      * @param fileConfig The configuration file.
      */
     public Configs(File fileConfig) {
-        this.fileConfig = fileConfig;
+        this(fileConfig, false);
+    }
+
+    /**
+     * Constructs a new Configs instance with the specified file, optionally backed by a binary snapshot.
+     * <p>With the binary snapshot, the parsed file is also stored next to it (as {@code .<name>.snapshot}),
+     * and loaded from there instead of parsing the YAML again as long as the file content is unchanged.</p>
+     *
+     * @param fileConfig  The configuration file.
+     * @param binaryCache true to persist and reuse a binary snapshot of the parsed file.
+     * @see ConfigBinaryCache
+     */
+    public Configs(File fileConfig, boolean binaryCache) {
+        this.sources = fileConfig != null ?
+                new ConfigSource[]{ConfigSource.yaml(fileConfig, binaryCache)} : new ConfigSource[0];
+    }
+
+    /**
+     * Constructs a new Configs instance merging several layers, later layers overriding earlier ones.
+     * <p>Layers are merged once into a single flattened snapshot, so a lookup costs the same whatever
+     * the number of layers. The snapshot is merged again when one of the layers changes.</p>
+     *
+     * @param sources The layers, from the lowest to the highest priority.
+     * @see ConfigSource
+     */
+    public Configs(@NotNull List<ConfigSource> sources) {
+        this.sources = sources.toArray(new ConfigSource[0]);
+    }
+
+    /**
+     * Constructs a new Configs instance merging several layers, later layers overriding earlier ones.
+     *
+     * @param sources The layers, from the lowest to the highest priority.
+     * @see #Configs(List)
+     */
+    public Configs(@NotNull ConfigSource @NotNull ... sources) {
+        this.sources = sources.clone();
     }
 
     /**
@@ -31,27 +100,272 @@ public class Configs {
      * @return The value of the node, or null if the node is not found.
      */
     public static @Nullable Object getNodeValue(@NotNull String path, Map<String, Object> config) {
-        String[] keys = path.split("\\.");
         Object node = config;
-        for (String key : keys) {
-            if (node instanceof Map) {
-                node = ((Map<?, ?>) node).get(key);
-            } else {
-                return null;
-            }
+        int start = 0;
+        while (start <= path.length()) {
+            if (!(node instanceof Map)) return null;
+            int end = path.indexOf('.', start);
+            if (end < 0) end = path.length();
+            node = ((Map<?, ?>) node).get(path.substring(start, end));
+            start = end + 1;
         }
         return node;
     }
 
-    private @Nullable Object getValue(@NotNull String node) {
-        if (fileConfig==null) return null;
+    /**
+     * Gets the current snapshot of the configuration, loading the layers again only if one of them changed.
+     * <p>The layers are checked at most once per {@link #setCheckInterval(long) check interval}, so reads in between
+     * do not touch the disk. While hot reload is enabled, the layers are not checked at all:
+     * the watchers publish new snapshots.</p>
+     *
+     * @return The up-to-date snapshot, as of the last check.
+     */
+    public @NotNull ConfigSnapshot getSnapshot() {
+        if (sources.length == 0) return ConfigSnapshot.EMPTY;
+        ConfigSnapshot current = snapshot.get();
+        if (current != null) {
+            if (watchers != null) return current;
+            long now = System.nanoTime();
+            if (now - checkedAt < checkIntervalNanos) return current;
+            checkedAt = now;
+            if (!current.isStale(sources)) return current;
+        } else {
+            checkedAt = System.nanoTime();
+        }
+        ConfigSnapshot fresh = ConfigSnapshot.loadOrKeep(current, sources);
+        //  If another thread already published a newer snapshot, keep it
+        if (snapshot.compareAndSet(current, fresh)) {
+            notifyListeners(current, fresh);
+            return fresh;
+        }
+        ConfigSnapshot published = snapshot.get();
+        return published != null ? published : fresh;
+    }
+
+    /**
+     * Sets the delay between two checks of the layers for changes, while hot reload is disabled.
+     * <p>Changes made to the layers in between are picked up by the first read after the delay,
+     * or right away by {@link #reload()}.</p>
+     *
+     * @param intervalMillis The delay (in milliseconds), 0 to check on every read.
+     */
+    public void setCheckInterval(long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("Check interval must not be negative: " + intervalMillis);
+        }
+        checkIntervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    /**
+     * Gets the delay between two checks of the layers for changes, while hot reload is disabled.
+     *
+     * @return The delay (in milliseconds).
+     */
+    public long getCheckInterval() {
+        return TimeUnit.NANOSECONDS.toMillis(checkIntervalNanos);
+    }
+
+    /**
+     * Loads the configuration layers again now, and notifies the listeners of the changed nodes.
+     * <p>If a layer is missing or cannot be read, such as a file being rewritten, the current nodes are kept.</p>
+     */
+    public void reload() {
+        if (sources.length == 0) return;
+        ConfigSnapshot fresh;
+        ConfigSnapshot previous;
+        do {
+            previous = snapshot.get();
+            fresh = ConfigSnapshot.loadOrKeep(previous, sources);
+        } while (!snapshot.compareAndSet(previous, fresh));
+        notifyListeners(previous, fresh);
+    }
+
+    /**
+     * Enables hot reload with a debounce delay of 200 milliseconds.
+     *
+     * @throws IOException If a configuration file cannot be watched.
+     * @see #enableHotReload(long)
+     */
+    public void enableHotReload() throws IOException {
+        enableHotReload(200L);
+    }
+
+    /**
+     * Enables hot reload: the configuration files are watched, and once a burst of changes settles,
+     * the layers are loaded on the watcher thread and the new snapshot replaces the current one atomically.
+     * <p>Readers never block during a reload, and no longer check the layers on each read.
+     * If a file is missing, cannot be read or parsed, or is not a YAML mapping (e.g. emptied while it is rewritten),
+     * the previous nodes are kept.</p>
+     *
+     * @param debounceMillis Delay without any change before the files are parsed again (in milliseconds).
+     * @throws IOException If a configuration file cannot be watched.
+     */
+    public synchronized void enableHotReload(long debounceMillis) throws IOException {
+        if (watchers != null) return;
+        getSnapshot();
+        List<ConfigWatcher> started = new ArrayList<>();
         try {
-            Yaml yaml = new Yaml();
-            Map<String, Object> valueNode = yaml.load(Files.newInputStream(fileConfig.toPath()));
-            return getNodeValue(node, valueNode);
-        } catch (IOException ignored) {
-            return null;
+            for (ConfigSource source : sources) {
+                File file = source.getFile();
+                if (file != null) started.add(new ConfigWatcher(file, debounceMillis, this::reload));
+            }
+        } catch (IOException exception) {
+            started.forEach(ConfigWatcher::close);
+            throw exception;
         }
+        watchers = Collections.unmodifiableList(started);
+    }
+
+    /**
+     * Disables hot reload, readers check the configuration layers again once per check interval.
+     */
+    public synchronized void disableHotReload() {
+        if (watchers == null) return;
+        watchers.forEach(ConfigWatcher::close);
+        watchers = null;
+    }
+
+    /**
+     * Checks if hot reload is enabled.
+     *
+     * @return true if the configuration files are watched.
+     */
+    public boolean isHotReloadEnabled() {
+        return watchers != null;
+    }
+
+    /**
+     * Subscribes a listener to changes of some nodes.
+     * <p>The pattern is a dotted path, optionally ending with {@code .*}: both {@code storage.sql}
+     * and {@code storage.sql.*} match {@code storage.sql} and every node under it, and {@code *} matches everything.</p>
+     *
+     * @param pattern  The nodes to listen to.
+     * @param listener The listener notified with the changed paths matching the pattern.
+     */
+    public void addListener(@NotNull String pattern, @NotNull ConfigListener listener) {
+        String prefix = pattern.equals("*") ? "" :
+                pattern.endsWith(".*") ? pattern.substring(0, pattern.length() - 2) : pattern;
+        listeners.add(new Subscription(prefix, listener));
+    }
+
+    /**
+     * Unsubscribes a listener from every pattern it was subscribed to.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(@NotNull ConfigListener listener) {
+        listeners.removeIf(subscription -> subscription.listener() == listener);
+    }
+
+    /**
+     * Notifies the listeners subscribed to the nodes that changed between two snapshots.
+     */
+    private void notifyListeners(@Nullable ConfigSnapshot previous, @NotNull ConfigSnapshot fresh) {
+        if (previous == null || previous == fresh || listeners.isEmpty()) return;
+        Set<String> changed = fresh.diff(previous);
+        if (changed.isEmpty()) return;
+        for (Subscription subscription : listeners) {
+            Set<String> matching = new HashSet<>();
+            for (String path : changed) {
+                if (subscription.matches(path)) matching.add(path);
+            }
+            if (matching.isEmpty()) continue;
+            try {
+                subscription.listener().onChange(fresh, Collections.unmodifiableSet(matching));
+            } catch (RuntimeException exception) {
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, exception);
+            }
+        }
+    }
+
+    private @Nullable Object getValue(@NotNull String node) {
+        return getSnapshot().get(node);
+    }
+
+    private @Nullable ConfigValue getConfigValue(@NotNull String node) {
+        return getSnapshot().getValue(node);
+    }
+
+    /**
+     * Binds a section of the configuration to a record, reading every component in one pass over the section.
+     * <p>The binding plan of each record type is built once and reused, including after a reload.</p>
+     *
+     * @param node The path to the section, or an empty string for the root of the configuration.
+     * @param type The record type, whose component names match the keys of the section.
+     * @param <T>  The record type.
+     * @return The new record, with defaults for every missing node.
+     * @throws IllegalArgumentException If the type is not a record, or has an unsupported component type.
+     * @see ConfigBinder
+     */
+    public <T extends Record> @NotNull T bind(@NotNull String node, @NotNull Class<T> type) {
+        return ConfigBinder.bind(getSnapshot(), node, type);
+    }
+
+    /**
+     * Retrieves the value of a precompiled key.
+     *
+     * @param key The key to read.
+     * @param <T> The type of the value.
+     * @return The value of the node, or the default value of the key if the node is not found or has the wrong type.
+     */
+    public <T> @NotNull T get(@NotNull ConfigKey<T> key) {
+        return key.read(getSnapshot());
+    }
+
+    /**
+     * Retrieves the string value of a precompiled key.
+     *
+     * @param key The key to read.
+     * @return The string value of the node, or the default value of the key if the node is not found.
+     */
+    public @NotNull String getString(@NotNull ConfigKey<String> key) {
+        ConfigValue value = key.resolve(getSnapshot());
+        return value != null ? value.asString() : key.getDefault();
+    }
+
+    /**
+     * Retrieves the integer value of a precompiled key, without boxing.
+     *
+     * @param key The key to read.
+     * @return The integer value of the node, or the default value of the key if the node is not a valid integer.
+     */
+    public int getInt(@NotNull ConfigKey<Integer> key) {
+        ConfigValue value = key.resolve(getSnapshot());
+        return value != null && value.isInt() ? value.asInt(0) : key.getDefault();
+    }
+
+    /**
+     * Retrieves the long value of a precompiled key, without boxing.
+     *
+     * @param key The key to read.
+     * @return The long value of the node, or the default value of the key if the node is not a valid long.
+     */
+    public long getLong(@NotNull ConfigKey<Long> key) {
+        ConfigValue value = key.resolve(getSnapshot());
+        return value != null && value.isLong() ? value.asLong(0L) : key.getDefault();
+    }
+
+    /**
+     * Retrieves the double value of a precompiled key, without boxing.
+     *
+     * @param key The key to read.
+     * @return The double value of the node, or the default value of the key if the node is not a valid double.
+     */
+    public double getDouble(@NotNull ConfigKey<Double> key) {
+        ConfigValue value = key.resolve(getSnapshot());
+        return value != null && value.isDouble() ? value.asDouble(0D) : key.getDefault();
+    }
+
+    /**
+     * Retrieves the boolean value of a precompiled key, without boxing.
+     *
+     * @param key The key to read.
+     * @return The boolean value of the node, or the default value of the key if the node is not a valid boolean.
+     */
+    public boolean getBoolean(@NotNull ConfigKey<Boolean> key) {
+        ConfigValue value = key.resolve(getSnapshot());
+        return value != null && value.isBoolean() ? value.asBoolean(false) : key.getDefault();
     }
 
     /**
@@ -61,8 +375,8 @@ public class Configs {
      * @return The string value of the node, or an empty string if the node is not found.
      */
     public @NotNull String getString(@NotNull String node) {
-        Object nodeValue = getValue(node);
-        return nodeValue!=null ? nodeValue.toString() : "";
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null ? nodeValue.asString() : "";
     }
 
     /**
@@ -73,8 +387,8 @@ public class Configs {
      * @return The string value of the node, or the default value if the node is not found.
      */
     public @NotNull String getString(@NotNull String node, @NotNull String def) {
-        Object nodeValue = getValue(node);
-        return nodeValue!=null ? nodeValue.toString() : def;
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null ? nodeValue.asString() : def;
     }
 
     /**
@@ -84,11 +398,8 @@ public class Configs {
      * @return The integer value of the node, or 0 if the node is not found or not a valid integer.
      */
     public @NotNull Integer getInt(@NotNull String node) {
-        try {
-            return Integer.valueOf(getString(node));
-        } catch (Exception ignored) {
-            return 0;
-        }
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null ? nodeValue.asInt(0) : 0;
     }
 
     /**
@@ -99,11 +410,8 @@ public class Configs {
      * @return The integer value of the node, or the default value if the node is not found or not a valid integer.
      */
     public @NotNull Integer getInt(@NotNull String node, @NotNull Integer def) {
-        try {
-            return Integer.valueOf(getString(node));
-        } catch (Exception ignored) {
-            return def;
-        }
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null && nodeValue.isInt() ? nodeValue.asInt(0) : def;
     }
 
     /**
@@ -113,11 +421,8 @@ public class Configs {
      * @return The long value of the node, or 0 if the node is not found or not a valid long.
      */
     public @NotNull Long getLong(@NotNull String node) {
-        try {
-            return Long.valueOf(getString(node));
-        } catch (Exception ignored) {
-            return 0L;
-        }
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null ? nodeValue.asLong(0L) : 0L;
     }
 
     /**
@@ -128,11 +433,8 @@ public class Configs {
      * @return The long value of the node, or the default value if the node is not found or not a valid long.
      */
     public @NotNull Long getLong(@NotNull String node, @NotNull Long def) {
-        try {
-            return Long.valueOf(getString(node));
-        } catch (Exception ignored) {
-            return def;
-        }
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null && nodeValue.isLong() ? nodeValue.asLong(0L) : def;
     }
 
     /**
@@ -142,11 +444,8 @@ public class Configs {
      * @return The double value of the node, or 0 if the node is not found or not a valid double.
      */
     public @NotNull Double getDouble(@NotNull String node) {
-        try {
-            return Double.valueOf(getString(node));
-        } catch (Exception ignored) {
-            return 0D;
-        }
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null ? nodeValue.asDouble(0D) : 0D;
     }
 
     /**
@@ -157,11 +456,8 @@ public class Configs {
      * @return The double value of the node, or the default value if the node is not found or not a valid double.
      */
     public @NotNull Double getDouble(@NotNull String node, @NotNull Double def) {
-        try {
-            return Double.valueOf(getString(node));
-        } catch (Exception ignored) {
-            return def;
-        }
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null && nodeValue.isDouble() ? nodeValue.asDouble(0D) : def;
     }
 
     /**
@@ -171,12 +467,8 @@ public class Configs {
      * @return The boolean value of the node, or false if the node is not found or not a valid boolean.
      */
     public @Nullable Boolean getBoolean(@NotNull String node) {
-        try {
-            Object nodeValue = getValue(node);
-            return (Boolean) nodeValue;
-        } catch (ClassCastException ignored) {
-            return false;
-        }
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null ? nodeValue.asBoolean(false) : null;
     }
 
     /**
@@ -187,12 +479,8 @@ public class Configs {
      * @return The boolean value of the node, or the default value if the node is not found or not a valid boolean.
      */
     public @NotNull Boolean getBoolean(@NotNull String node, @NotNull Boolean def) {
-        try {
-            Object nodeValue = getValue(node);
-            return nodeValue != null ? (Boolean) nodeValue : def;
-        } catch (ClassCastException ignored) {
-            return def;
-        }
+        ConfigValue nodeValue = getConfigValue(node);
+        return nodeValue!=null ? nodeValue.asBoolean(def) : def;
     }
 
     /**
@@ -222,6 +510,28 @@ public class Configs {
         return getList(node).stream().map(Object::toString).collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves the message template compiled from a node in the configuration.
+     * <p>Templates are compiled once per node, and compiled again only after the configuration changed.</p>
+     *
+     * @param node The path to the node.
+     * @return The compiled message template, or an empty template if the node is not found.
+     */
+    public @NotNull MessageTemplate getMessageTemplate(@NotNull String node) {
+        MessageTemplate template = getSnapshot().getMessageTemplate(node);
+        return template != null ? template : MessageTemplate.EMPTY;
+    }
+
+    /**
+     * Retrieves the message templates compiled from a list node in the configuration.
+     *
+     * @param node The path to the node.
+     * @return The unmodifiable list of compiled templates, or an empty list if the node is not found or not a list.
+     */
+    public @NotNull List<MessageTemplate> getMessageTemplates(@NotNull String node) {
+        return getSnapshot().getMessageTemplates(node);
+    }
+
     /**
      * Retrieves a minecraft formatted message from a node in the configuration, translating color codes.
      *
@@ -229,7 +539,7 @@ public class Configs {
      * @return The minecraft formatted message, with color codes translated.
      */
     public @NotNull String getMessage(@NotNull String node) {
-        return McTools.minecraftColorCodes(getString(node));
+        return getMessageTemplate(node).getText();
     }
 
     /**
@@ -242,7 +552,8 @@ public class Configs {
      * or the default value if the node is not found.
      */
     public @NotNull String getMessage(@NotNull String node, @NotNull String def) {
-        return McTools.minecraftColorCodes(getString(node, def));
+        MessageTemplate template = getSnapshot().getMessageTemplate(node);
+        return template != null ? template.getText() : McTools.minecraftColorCodes(def);
     }
 
     /**
@@ -252,8 +563,9 @@ public class Configs {
      * @return The list of minecraft formatted messages, with color codes translated.
      */
     public @NotNull List<String> getMessages(@NotNull String node) {
-        List<String> messages = new ArrayList<>();
-        getStringList(node).forEach(line -> messages.add(McTools.minecraftColorCodes(line)));
+        List<MessageTemplate> templates = getMessageTemplates(node);
+        List<String> messages = new ArrayList<>(templates.size());
+        templates.forEach(template -> messages.add(template.getText()));
         return messages;
     }
 }
@@ -1,28 +1,70 @@
 package fr.milekat.utils;
 
+import fr.milekat.utils.dates.DateFormatterCache;
+import fr.milekat.utils.dates.EsDateCodec;
+import fr.milekat.utils.dates.NowFormatCache;
+import fr.milekat.utils.dates.PeriodParser;
+import fr.milekat.utils.dates.RemainingTimeFormatter;
+import fr.milekat.utils.dates.TimeBreakdown;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.Duration;
-import java.time.Instant;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.LongSupplier;
 
 /**
  * Simple personal lib to format my dates
+ * <p>All formatters are immutable {@link DateTimeFormatter}s, so every method is safe to call from any thread.
+ * Dates are formatted and parsed in the system default time zone.</p>
+ * <p>Formatting the current date reuses the last formatted string when possible (see {@link NowFormatCache}).
+ * The current date is read from {@link System#currentTimeMillis()}, or from the clock set with
+ * {@link #useClock(LongSupplier)}: with a {@link fr.milekat.utils.dates.CoarseClock}, every call made during
+ * the same tick returns the same string without allocating.</p>
  */
 @SuppressWarnings("unused")
 public class DateMileKat {
-    private static final Pattern periodPattern = Pattern.compile("([0-9]+)([smhjd])");
-    private static final DateFormat customDf = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-    private static final DateFormat systemDf = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+    /** Result of {@link #parsePeriodMillis(String)} for an invalid period */
+    public static final long INVALID_PERIOD = PeriodParser.INVALID;
+
+    private static final ZoneId zone = ZoneId.systemDefault();
+    private static final DateTimeFormatter customDf = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")
+            .withZone(zone);
+    private static final DateTimeFormatter systemDf = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")
+            .withZone(zone);
     @SuppressWarnings("SpellCheckingInspection")
-    private static final DateFormat elasticDf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    private static final DateTimeFormatter elasticDf = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ")
+            .withZone(zone);
+    private static final NowFormatCache customNow = new NowFormatCache(customDf);
+    private static final NowFormatCache systemNow = new NowFormatCache(systemDf);
+    private static final NowFormatCache elasticNow = new NowFormatCache(elasticDf);
+    private static final EsDateCodec elasticCodec = new EsDateCodec(zone);
+    private static final DateFormatterCache formatters = new DateFormatterCache();
+    private static volatile LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * Parses a date string with one of the local date formatters.
+     *
+     * @param formatter The formatter to use.
+     * @param date      The date string to parse.
+     * @return The parsed instant.
+     * @throws ParseException If the date string does not match the format.
+     */
+    private static @NotNull Instant parse(@NotNull DateTimeFormatter formatter, String date) throws ParseException {
+        if (date == null) throw new ParseException("Cannot parse a null date", 0);
+        try {
+            return LocalDateTime.parse(date, formatter).atZone(zone).toInstant();
+        } catch (DateTimeParseException exception) {
+            ParseException parseException = new ParseException(exception.getMessage(), exception.getErrorIndex());
+            parseException.initCause(exception);
+            throw parseException;
+        }
+    }
 
     /**
      * Parses a date string in the custom format.
@@ -32,7 +74,18 @@ public class DateMileKat {
      * @throws ParseException If an error occurs during parsing.
      */
     public static Date getCtmStringDate(String date) throws ParseException {
-        return customDf.parse(date);
+        return Date.from(parse(customDf, date));
+    }
+
+    /**
+     * Parses a date string in the custom format.
+     *
+     * @param date The date string to parse.
+     * @return The parsed instant.
+     * @throws ParseException If an error occurs during parsing.
+     */
+    public static @NotNull Instant getCtmStringInstant(String date) throws ParseException {
+        return parse(customDf, date);
     }
 
     /**
@@ -43,7 +96,18 @@ public class DateMileKat {
      * @throws ParseException If an error occurs during parsing.
      */
     public static Date getSysStringDate(String date) throws ParseException {
-        return systemDf.parse(date);
+        return Date.from(parse(systemDf, date));
+    }
+
+    /**
+     * Parses a date string in the system format.
+     *
+     * @param date The date string to parse.
+     * @return The parsed instant.
+     * @throws ParseException If an error occurs during parsing.
+     */
+    public static @NotNull Instant getSysStringInstant(String date) throws ParseException {
+        return parse(systemDf, date);
     }
 
     /**
@@ -54,7 +118,44 @@ public class DateMileKat {
      * @throws ParseException If an error occurs during parsing.
      */
     public static Date getESStringDate(String date) throws ParseException {
-        return elasticDf.parse(date);
+        return new Date(getESStringMillis(date));
+    }
+
+    /**
+     * Parses a date string in the Elasticsearch format.
+     *
+     * @param date The date string to parse.
+     * @return The parsed instant.
+     * @throws ParseException If an error occurs during parsing.
+     */
+    public static @NotNull Instant getESStringInstant(String date) throws ParseException {
+        return Instant.ofEpochMilli(getESStringMillis(date));
+    }
+
+    /**
+     * Parses a date string in the Elasticsearch format, without creating any object for canonical dates.
+     *
+     * @param date The date string to parse.
+     * @return The milliseconds since the epoch.
+     * @throws ParseException If an error occurs during parsing.
+     * @see EsDateCodec
+     */
+    public static long getESStringMillis(CharSequence date) throws ParseException {
+        if (date == null) throw new ParseException("Cannot parse a null date", 0);
+        return elasticCodec.parse(date);
+    }
+
+    /**
+     * Parses a date in the Elasticsearch format from a range of a char array, such as a JSON parser buffer.
+     *
+     * @param chars  The buffer holding the date.
+     * @param offset The index of the first char of the date.
+     * @param length The length of the date.
+     * @return The milliseconds since the epoch.
+     * @throws ParseException If an error occurs during parsing.
+     */
+    public static long getESStringMillis(char @NotNull [] chars, int offset, int length) throws ParseException {
+        return elasticCodec.parse(chars, offset, length);
     }
 
     /**
@@ -64,7 +165,27 @@ public class DateMileKat {
      * @return The formatted date string.
      */
     public static @NotNull String getDateCtm(Date date) {
-        return customDf.format(date);
+        return customDf.format(date.toInstant());
+    }
+
+    /**
+     * Formats an instant to a custom date string.
+     *
+     * @param instant The instant to format.
+     * @return The formatted date string.
+     */
+    public static @NotNull String getDateCtm(@NotNull Instant instant) {
+        return customDf.format(instant);
+    }
+
+    /**
+     * Formats epoch milliseconds to a custom date string.
+     *
+     * @param epochMillis The milliseconds since the epoch.
+     * @return The formatted date string.
+     */
+    public static @NotNull String getDateCtm(long epochMillis) {
+        return customDf.format(Instant.ofEpochMilli(epochMillis));
     }
 
     /**
@@ -74,7 +195,27 @@ public class DateMileKat {
      * @return The formatted date string.
      */
     public static @NotNull String getDateSys(Date date) {
-        return systemDf.format(date);
+        return systemDf.format(date.toInstant());
+    }
+
+    /**
+     * Formats an instant to a system date string.
+     *
+     * @param instant The instant to format.
+     * @return The formatted date string.
+     */
+    public static @NotNull String getDateSys(@NotNull Instant instant) {
+        return systemDf.format(instant);
+    }
+
+    /**
+     * Formats epoch milliseconds to a system date string.
+     *
+     * @param epochMillis The milliseconds since the epoch.
+     * @return The formatted date string.
+     */
+    public static @NotNull String getDateSys(long epochMillis) {
+        return systemDf.format(Instant.ofEpochMilli(epochMillis));
     }
 
     /**
@@ -84,7 +225,109 @@ public class DateMileKat {
      * @return The formatted date string.
      */
     public static @NotNull String getDateEs(Date date) {
-        return elasticDf.format(date);
+        return elasticCodec.format(date.getTime());
+    }
+
+    /**
+     * Formats an instant to an Elasticsearch date string.
+     *
+     * @param instant The instant to format.
+     * @return The formatted date string.
+     */
+    public static @NotNull String getDateEs(@NotNull Instant instant) {
+        return elasticCodec.format(instant.toEpochMilli());
+    }
+
+    /**
+     * Formats epoch milliseconds to an Elasticsearch date string.
+     *
+     * @param epochMillis The milliseconds since the epoch.
+     * @return The formatted date string.
+     */
+    public static @NotNull String getDateEs(long epochMillis) {
+        return elasticCodec.format(epochMillis);
+    }
+
+    /**
+     * Formats epoch milliseconds to an Elasticsearch date string, at the end of a builder.
+     *
+     * @param builder     The builder to append to.
+     * @param epochMillis The milliseconds since the epoch.
+     * @return The builder.
+     */
+    public static @NotNull StringBuilder appendDateEs(@NotNull StringBuilder builder, long epochMillis) {
+        return elasticCodec.appendTo(builder, epochMillis);
+    }
+
+    /**
+     * Gets a formatter for a pattern, in a zone and a locale, such as the zone and the language of a player.
+     * <p>Formatters are immutable and cached, so there is no need to keep them.</p>
+     *
+     * @param pattern The pattern, see {@link DateTimeFormatter#ofPattern(String, Locale)}.
+     * @param zone    The zone dates are formatted in.
+     * @param locale  The locale of the month and day names.
+     * @return The formatter.
+     * @throws IllegalArgumentException If the pattern is not valid.
+     */
+    public static @NotNull DateTimeFormatter getFormatter(@NotNull String pattern, @NotNull ZoneId zone,
+                                                          @NotNull Locale locale) {
+        return formatters.get(pattern, zone, locale);
+    }
+
+    /**
+     * Formats an instant with a pattern, in a zone and a locale.
+     *
+     * @param instant The instant to format.
+     * @param pattern The pattern, see {@link DateTimeFormatter#ofPattern(String, Locale)}.
+     * @param zone    The zone the date is formatted in.
+     * @param locale  The locale of the month and day names.
+     * @return The formatted date string.
+     * @throws IllegalArgumentException If the pattern is not valid.
+     */
+    public static @NotNull String format(@NotNull Instant instant, @NotNull String pattern, @NotNull ZoneId zone,
+                                         @NotNull Locale locale) {
+        return formatters.get(pattern, zone, locale).format(instant);
+    }
+
+    /**
+     * Formats epoch milliseconds with a pattern, in a zone and a locale.
+     *
+     * @param epochMillis The milliseconds since the epoch.
+     * @param pattern     The pattern, see {@link DateTimeFormatter#ofPattern(String, Locale)}.
+     * @param zone        The zone the date is formatted in.
+     * @param locale      The locale of the month and day names.
+     * @return The formatted date string.
+     * @throws IllegalArgumentException If the pattern is not valid.
+     */
+    public static @NotNull String format(long epochMillis, @NotNull String pattern, @NotNull ZoneId zone,
+                                         @NotNull Locale locale) {
+        return format(Instant.ofEpochMilli(epochMillis), pattern, zone, locale);
+    }
+
+    /**
+     * Formats a Date object with a pattern, in a zone and a locale.
+     *
+     * @param date    The Date object to format.
+     * @param pattern The pattern, see {@link DateTimeFormatter#ofPattern(String, Locale)}.
+     * @param zone    The zone the date is formatted in.
+     * @param locale  The locale of the month and day names.
+     * @return The formatted date string.
+     * @throws IllegalArgumentException If the pattern is not valid.
+     */
+    public static @NotNull String format(@NotNull Date date, @NotNull String pattern, @NotNull ZoneId zone,
+                                         @NotNull Locale locale) {
+        return format(date.toInstant(), pattern, zone, locale);
+    }
+
+    /**
+     * Sets the clock the current date is read from, such as {@link fr.milekat.utils.dates.CoarseClock#millis()}.
+     * <p>The clock stays owned by the caller: set the clock back to null before closing it,
+     * e.g. when its plugin is disabled.</p>
+     *
+     * @param millisClock The clock, in epoch milliseconds, or null to read {@link System#currentTimeMillis()}.
+     */
+    public static void useClock(@Nullable LongSupplier millisClock) {
+        clock = millisClock != null ? millisClock : System::currentTimeMillis;
     }
 
     /**
@@ -93,7 +336,7 @@ public class DateMileKat {
      * @return The formatted date string.
      */
     public static @NotNull String getDateCtm() {
-        return getDateCtm(new Date());
+        return customNow.format(clock.getAsLong());
     }
 
     /**
@@ -102,7 +345,7 @@ public class DateMileKat {
      * @return The formatted date string.
      */
     public static @NotNull String getDateSys() {
-        return getDateSys(new Date());
+        return systemNow.format(clock.getAsLong());
     }
 
     /**
@@ -111,7 +354,7 @@ public class DateMileKat {
      * @return The formatted date string.
      */
     public static @NotNull String getDateEs() {
-        return getDateEs(new Date());
+        return elasticNow.format(clock.getAsLong());
     }
 
     /**
@@ -133,21 +376,40 @@ public class DateMileKat {
      * @return The formatted string representing the remaining time.
      */
     public static String remainingToString(Date date) {
-        HashMap<String, String> reamingTime = DateMileKat.getReamingTime(date, new Date());
-        String time = "";
-        if (!reamingTime.get("D").equals("0")) {
-            time = reamingTime.get("D") + "jours ";
-        }
-        if (!reamingTime.get("h").equals("0")) {
-            time = time + reamingTime.get("h") + "h ";
-        }
-        if (!reamingTime.get("m").equals("0")) {
-            time = time + reamingTime.get("m") + "m ";
-        }
-        if (!reamingTime.get("s").equals("0")) {
-            time = time + reamingTime.get("s") + "s ";
-        }
-        return Tools.remLastChar(time);
+        return RemainingTimeFormatter.FRENCH.format(date.getTime() - System.currentTimeMillis());
+    }
+
+    /**
+     * Converts the remaining time until a deadline to a formatted string.
+     *
+     * @param deadlineMillis The deadline, in milliseconds since the epoch.
+     * @param formatter      The formatter holding the unit labels.
+     * @return The formatted string representing the remaining time.
+     */
+    public static @NotNull String remainingToString(long deadlineMillis, @NotNull RemainingTimeFormatter formatter) {
+        return formatter.format(deadlineMillis - System.currentTimeMillis());
+    }
+
+    /**
+     * Converts the remaining times until many deadlines to formatted strings, against the same current time.
+     *
+     * @param formatter      The formatter holding the unit labels.
+     * @param deadlineMillis The deadlines, in milliseconds since the epoch.
+     * @return The formatted strings, in the order of the deadlines.
+     */
+    public static @NotNull String @NotNull [] remainingToStrings(@NotNull RemainingTimeFormatter formatter,
+                                                                 long @NotNull ... deadlineMillis) {
+        return formatter.formatAll(System.currentTimeMillis(), deadlineMillis);
+    }
+
+    /**
+     * Splits the remaining time until a deadline.
+     *
+     * @param deadlineMillis The deadline, in milliseconds since the epoch.
+     * @return The remaining time, negative if the deadline is past.
+     */
+    public static @NotNull TimeBreakdown getRemainingTime(long deadlineMillis) {
+        return TimeBreakdown.of(deadlineMillis - System.currentTimeMillis());
     }
 
     /**
@@ -170,37 +432,25 @@ public class DateMileKat {
 
     /**
      * Parses a period string and converts it to a duration in milliseconds.
+     * <p>Chars that are not part of a term are skipped, see {@link PeriodParser} for the units.</p>
      *
      * @param period The period string to parse.
-     * @return The duration in milliseconds.
+     * @return The duration in milliseconds, or null if the period is null or too long.
      */
     public static Long parsePeriod(String period) {
         if (period == null) return null;
-        period = period.toLowerCase(Locale.ROOT);
-        Matcher matcher = periodPattern.matcher(period);
-        Instant instant = Instant.EPOCH;
-        while (matcher.find()) {
-            int num = Integer.parseInt(matcher.group(1));
-            switch (matcher.group(2)) {
-                case "d":
-                case "j": {
-                    instant = instant.plus(Duration.ofDays(num));
-                    break;
-                }
-                case "h": {
-                    instant = instant.plus(Duration.ofHours(num));
-                    break;
-                }
-                case "m": {
-                    instant = instant.plus(Duration.ofMinutes(num));
-                    break;
-                }
-                case "s": {
-                    instant = instant.plus(Duration.ofSeconds(num));
-                    break;
-                }
-            }
-        }
-        return instant.toEpochMilli();
+        long millis = PeriodParser.parseLenient(period);
+        return millis != INVALID_PERIOD ? millis : null;
+    }
+
+    /**
+     * Parses a period string, such as {@code 1d12h}, and converts it to a duration in milliseconds.
+     *
+     * @param period The period string to parse.
+     * @return The duration in milliseconds, or {@link #INVALID_PERIOD} if the period is not valid.
+     * @see PeriodParser
+     */
+    public static long parsePeriodMillis(String period) {
+        return PeriodParser.parse(period);
     }
-}
\ No newline at end of file
+}
@@ -1,81 +1,262 @@
 package fr.milekat.utils;
 
+import fr.milekat.utils.mcnames.MojangResolver;
+import fr.milekat.utils.mcnames.NameBatcher;
+import fr.milekat.utils.mcnames.ProfileCache;
+import fr.milekat.utils.mcnames.ProfileCache.Profile;
+import fr.milekat.utils.mcnames.ProfileStore;
 import org.jetbrains.annotations.NotNull;
-import org.json.JSONException;
-import org.json.JSONObject;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 
 @SuppressWarnings({"unused", "SpellCheckingInspection"})
 public class McNames {
+    private static volatile ProfileCache cache = new ProfileCache();
+    private static volatile MojangResolver resolver = new MojangResolver();
+    private static volatile NameBatcher batcher = new NameBatcher(resolver);
+    private static volatile @Nullable ProfileStore store;
+    private static final LongAdder STALE_COUNT = new LongAdder();
+
+    /**
+     * Gets the cache of the profiles resolved by {@link #getUuid(String)} and {@link #getName(String)}.
+     *
+     * @return The profile cache.
+     */
+    public static @NotNull ProfileCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Replaces the profile cache, to change its size or TTLs.
+     *
+     * @param profileCache The new cache.
+     */
+    public static void setCache(@NotNull ProfileCache profileCache) {
+        cache = profileCache;
+    }
+
+    /**
+     * Gets the store keeping the resolved profiles on disk, if any.
+     *
+     * @return The profile store, or null if profiles are not stored.
+     */
+    public static @Nullable ProfileStore getStore() {
+        return store;
+    }
+
+    /**
+     * Sets the store keeping the resolved profiles on disk, so that they are still known after a restart.
+     * <p>Lookups missing from the cache are looked up in the store before calling the Mojang API.
+     * The store is not closed by McNames.</p>
+     *
+     * @param profileStore The profile store, or null to stop storing profiles.
+     */
+    public static void setStore(@Nullable ProfileStore profileStore) {
+        store = profileStore;
+    }
+
+    /**
+     * Gets the resolver sending the requests to the Mojang API.
+     *
+     * @return The resolver.
+     */
+    public static @NotNull MojangResolver getResolver() {
+        return resolver;
+    }
+
+    /**
+     * Replaces the resolver, to use the API at another URL.
+     *
+     * @param mojangResolver The new resolver.
+     */
+    public static synchronized void setResolver(@NotNull MojangResolver mojangResolver) {
+        NameBatcher previous = batcher;
+        resolver = mojangResolver;
+        batcher = new NameBatcher(mojangResolver);
+        previous.close();
+    }
+
     /**
      * Retrieves the UUID of a Minecraft player from their name (if it exists).
+     * <p>Results are cached, see {@link #getCache()}. This method blocks until the API responds,
+     * use {@link #getUuidAsync(String)} from the server thread.</p>
      *
      * @param name The Minecraft player name.
      * @return The UUID of the player in the format xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx.
      * @throws IOException If an I/O error occurs.
      */
     public static @NotNull String getUuid(String name) throws IOException {
-        String url = "https://api.mojang.com/users/profiles/minecraft/" + name;
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(new URL(url).openStream(), StandardCharsets.UTF_8))) {
-            // Read the content of the URL
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line);
-            }
-
-            // Ensure the content is not empty
-            if (content.length() == 0) {
-                return "invalid name";
-            }
-
-            // Parse the JSON content
-            JSONObject UUIDObject = new JSONObject(content.toString());
-
-            // Return the UUID
-            return UUIDObject.get("id").toString().replaceFirst(
-                    "(\\p{XDigit}{8})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}+)",
-                    "$1-$2-$3-$4-$5");
-        } catch (JSONException exception) {
-            throw new IOException("Failed to parse Mojang API response for name: " + name, exception);
-        }
+        return await(getUuidAsync(name));
     }
 
     /**
      * Retrieves the Minecraft player name from their UUID (if it exists).
+     * <p>Results are cached, see {@link #getCache()}. This method blocks until the API responds,
+     * use {@link #getNameAsync(String)} from the server thread.</p>
      *
      * @param uuid The UUID of the player.
      * @return The Minecraft player name.
      */
     public static String getName(@NotNull String uuid) throws IOException {
-        String url = "https://api.mojang.com/user/profile/" + uuid;
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(new URL(url).openStream(), StandardCharsets.UTF_8))) {
-            // Read the content of the URL
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line);
+        return await(getNameAsync(uuid));
+    }
+
+    /**
+     * Retrieves the UUID of a Minecraft player from their name (if it exists), without blocking.
+     * <p>Results are cached, and concurrent lookups of the same name share a single request.
+     * Names looked up close together are resolved by bulk requests, see {@link NameBatcher}.</p>
+     *
+     * @param name The Minecraft player name.
+     * @return The UUID of the player in the format xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx, or "invalid name".
+     * If the request fails, an expired profile is served if there is one, otherwise the future fails
+     * with an {@link IOException}.
+     */
+    public static @NotNull CompletableFuture<String> getUuidAsync(@NotNull String name) {
+        ProfileCache profiles = cache;
+        Profile cached = profiles.getByName(name);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached == ProfileCache.MISSING ? "invalid name" : cached.uuid());
+        }
+        ProfileStore profileStore = store;
+        ProfileStore.Entry stored = profileStore != null ? profileStore.getByName(name) : null;
+        if (stored != null) {
+            cacheStored(profiles, profileStore, stored);
+            return CompletableFuture.completedFuture(stored.profile().uuid());
+        }
+        return batcher.lookup(name).handle((profile, throwable) -> {
+            if (throwable != null) {
+                Profile stale = profiles.getStaleByName(name);
+                if (stale == null && profileStore != null) stale = profileOf(profileStore.getStaleByName(name));
+                return serveStale(stale, throwable).uuid();
+            }
+            if (profile == null) {
+                profiles.putMissingName(name);
+                return "invalid name";
             }
+            remember(profiles, profileStore, profile);
+            return profile.uuid();
+        });
+    }
 
-            // Ensure the content is not empty
-            if (content.length() == 0) {
+    /**
+     * Retrieves the UUIDs of several Minecraft players from their names, without blocking.
+     * <p>Names that are not cached are resolved by bulk requests, see {@link NameBatcher}.</p>
+     *
+     * @param names The Minecraft player names.
+     * @return The UUID (or "invalid name") of each name, in the order of the names.
+     * The future fails with an {@link IOException} if a request fails.
+     */
+    public static @NotNull CompletableFuture<Map<String, String>> getUuidsAsync(@NotNull Collection<String> names) {
+        List<CompletableFuture<String>> lookups = names.stream().map(McNames::getUuidAsync).toList();
+        return CompletableFuture.allOf(lookups.toArray(CompletableFuture<?>[]::new)).thenApply(ignored -> {
+            Map<String, String> uuids = new LinkedHashMap<>();
+            int i = 0;
+            for (String name : names) uuids.put(name, lookups.get(i++).join());
+            return uuids;
+        });
+    }
+
+    /**
+     * Retrieves the Minecraft player name from their UUID (if it exists), without blocking.
+     * <p>Results are cached, and concurrent lookups of the same UUID share a single request.</p>
+     *
+     * @param uuid The UUID of the player.
+     * @return The Minecraft player name, or "invalid uuid".
+     * If the request fails, an expired profile is served if there is one, otherwise the future fails
+     * with an {@link IOException}.
+     */
+    public static @NotNull CompletableFuture<String> getNameAsync(@NotNull String uuid) {
+        ProfileCache profiles = cache;
+        Profile cached = profiles.getByUuid(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached == ProfileCache.MISSING ? "invalid uuid" : cached.name());
+        }
+        ProfileStore profileStore = store;
+        ProfileStore.Entry stored = profileStore != null ? profileStore.getByUuid(uuid) : null;
+        if (stored != null) {
+            cacheStored(profiles, profileStore, stored);
+            return CompletableFuture.completedFuture(stored.profile().name());
+        }
+        return resolver.lookupUuid(uuid).handle((profile, throwable) -> {
+            if (throwable != null) {
+                Profile stale = profiles.getStaleByUuid(uuid);
+                if (stale == null && profileStore != null) stale = profileOf(profileStore.getStaleByUuid(uuid));
+                return serveStale(stale, throwable).name();
+            }
+            if (profile == null) {
+                profiles.putMissingUuid(uuid);
                 return "invalid uuid";
             }
+            remember(profiles, profileStore, profile);
+            return profile.name();
+        });
+    }
 
-            // Parse the JSON content
-            JSONObject UUIDObject = new JSONObject(content.toString());
+    /**
+     * Keeps a profile resolved by the Mojang API in the cache, and in the store if any.
+     */
+    private static void remember(@NotNull ProfileCache profiles, @Nullable ProfileStore profileStore,
+                                 @NotNull Profile profile) {
+        profiles.put(profile);
+        if (profileStore != null) profileStore.put(profile);
+    }
+
+    /**
+     * Caches a profile read from the store until it expires from the store, so that a profile stored more than
+     * a cache TTL ago is not cached already expired.
+     */
+    private static void cacheStored(@NotNull ProfileCache profiles, @NotNull ProfileStore profileStore,
+                                    @NotNull ProfileStore.Entry stored) {
+        profiles.putUntil(stored.profile(), stored.writtenAt() + profileStore.getTtl().toMillis());
+    }
+
+    /**
+     * Gets the expired profile served when a lookup failed, or rethrows its failure if there is none.
+     */
+    private static @NotNull Profile serveStale(@Nullable Profile stale, @NotNull Throwable throwable) {
+        if (stale == null) {
+            throw throwable instanceof CompletionException completion ? completion : new CompletionException(throwable);
+        }
+        STALE_COUNT.increment();
+        return stale;
+    }
+
+    private static @Nullable Profile profileOf(@Nullable ProfileStore.Entry entry) {
+        return entry != null ? entry.profile() : null;
+    }
+
+    /**
+     * Gets the number of lookups served with an expired profile, because the Mojang API was unavailable.
+     * <p>See {@link MojangResolver#getStats()} for the counters of the requests.</p>
+     *
+     * @return The number of lookups.
+     */
+    public static long getServedStaleCount() {
+        return STALE_COUNT.sum();
+    }
 
-            // Return the player name
-            return UUIDObject.get("name").toString();
-        } catch (JSONException exception) {
-            throw new IOException("Failed to parse Mojang API response for uuid: " + uuid, exception);
+    /**
+     * Waits for a lookup, rethrowing its failure.
+     */
+    private static @NotNull String await(@NotNull CompletableFuture<String> lookup) throws IOException {
+        try {
+            return lookup.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the Mojang API");
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException ioException) throw ioException;
+            throw new IOException(exception.getCause());
         }
     }
 }
@@ -1,13 +1,25 @@
 package fr.milekat.utils;
 
+import fr.milekat.utils.mctools.ColorTranslator;
+import fr.milekat.utils.mctools.ComponentTemplate;
+import fr.milekat.utils.mctools.TabCompletionIndex;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @SuppressWarnings("unused")
 public class McTools {
+    /** Maximum number of compiled components kept by {@link #getJsonComponent(String)} */
+    public static final int COMPONENT_CACHE_SIZE = 1024;
+
+    /** Compiled components by source text, cleared once full so that text built from variables can't fill it */
+    private static final ConcurrentMap<String, ComponentTemplate> COMPONENTS = new ConcurrentHashMap<>();
+
     /**
      * Formats the list of arguments for Minecraft tab completion.
      *
@@ -18,7 +30,7 @@ public class McTools {
     public static @NotNull ArrayList<String> getTabArgs(String arg, @NotNull List<String> MyStrings) {
         ArrayList<String> MySortStrings = new ArrayList<>();
         for(String loop : MyStrings) {
-            if(loop.toLowerCase().startsWith(arg.toLowerCase()))
+            if(loop.regionMatches(true, 0, arg, 0, arg.length()))
             {
                 MySortStrings.add(loop);
             }
@@ -26,24 +38,59 @@ public class McTools {
         return MySortStrings;
     }
 
+    /**
+     * Formats the list of arguments for Minecraft tab completion, from a pre-sorted index.
+     *
+     * @param arg   The input argument.
+     * @param index The index of the candidates.
+     * @param limit The maximum number of candidates to return.
+     * @return The sorted list of candidates that start with the input argument.
+     */
+    public static @NotNull List<String> getTabArgs(@NotNull String arg, @NotNull TabCompletionIndex index, int limit) {
+        return index.complete(arg, limit);
+    }
+
     /**
      * Translates Minecraft color codes in a text string.
+     * <p>Hex colours written {@code &#RRGGBB} or {@code &x&R&R&G&G&B&B} are translated too.</p>
      *
      * @param textToTranslate The text to translate.
      * @return The translated text with Minecraft color codes.
-     * @author From net.md_5.bungee.api.ChatColor#translateAlternateColorCodes()
+     * @see ColorTranslator
      */
-    @Contract("_ -> new")
+    @Contract(pure = true)
     public static @NotNull String minecraftColorCodes(@NotNull String textToTranslate) {
-        char[] b = textToTranslate.toCharArray();
-        for (int i = 0; i < b.length - 1; i++) {
-            String ALL_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
-            if (b[i] == '&' && ALL_CODES.indexOf(b[i + 1]) > -1) {
-                char COLOR_CHAR = (char) 167;
-                b[i] = COLOR_CHAR;
-                b[i + 1] = Character.toLowerCase(b[i + 1]);
-            }
-        }
-        return new String(b);
+        return ColorTranslator.DEFAULT.translate(textToTranslate);
+    }
+
+    /**
+     * Gets the JSON component of a colour coded text, compiled once and then cached.
+     * <p>Variable parts should be written as {@code {placeholder}} and filled with
+     * {@link ComponentTemplate#render(Object...)}, rather than concatenated to the text, so that the component
+     * is compiled only once.</p>
+     *
+     * @param text The text, with {@code &} or {@code §} colour codes and {@code {name}} placeholders.
+     * @return The compiled component.
+     * @see ComponentTemplate
+     */
+    public static @NotNull ComponentTemplate getJsonComponent(@NotNull String text) {
+        ComponentTemplate template = COMPONENTS.get(text);
+        if (template != null) return template;
+        template = ComponentTemplate.compile(text);
+        if (COMPONENTS.size() >= COMPONENT_CACHE_SIZE) COMPONENTS.clear();
+        COMPONENTS.put(text, template);
+        return template;
+    }
+
+    /**
+     * Converts a colour coded text into a JSON component, for titles, boss bars or tellraw.
+     *
+     * @param text      The text, with {@code &} or {@code §} colour codes and {@code {name}} placeholders.
+     * @param keyValues The placeholder names and values, alternated: {@code "player", name, "count", 3}.
+     * @return The JSON component.
+     * @see #getJsonComponent(String)
+     */
+    public static @NotNull String toJsonComponent(@NotNull String text, @Nullable Object @NotNull ... keyValues) {
+        return getJsonComponent(text).render(keyValues);
     }
 }
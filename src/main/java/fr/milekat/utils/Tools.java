@@ -1,15 +1,27 @@
 package fr.milekat.utils;
 
+import fr.milekat.utils.tools.IdGenerator;
+import fr.milekat.utils.tools.StringValidator;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Optional;
 
 @SuppressWarnings("unused")
 public class Tools {
+    /** Size from which {@link #toByteBuffer(Path)} maps files in memory instead of reading them (in bytes) */
+    public static final int MAP_THRESHOLD = 1 << 20;
+
     /**
      * Remove the last character from a string.
      *
@@ -28,9 +40,10 @@ public class Tools {
      *
      * @param str The input string.
      * @return true if the string is alphanumeric, false otherwise.
+     * @see StringValidator#ALPHANUMERIC_EXTENDED
      */
     public static boolean isAlphaNumericExtended(String str) {
-        return str != null && str.matches("^[a-zA-Z0-9\\s()_éèêïç\\-]*$");
+        return StringValidator.ALPHANUMERIC_EXTENDED.test(str);
     }
 
     /**
@@ -117,44 +130,100 @@ public class Tools {
      * Generates a random string of the specified length.
      *
      * @param resultLength The length of the random string to generate.
-     * @return The random string.
+     * @return The random string, made of ASCII letters and digits.
+     * @see IdGenerator
      */
     public static @NotNull String getRandomString(int resultLength) {
-        // Define the character set for generating random string
-        @SuppressWarnings("SpellCheckingInspection")
-        final String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ" +
-                "0123456789" +
-                "abcdefghijklmnopqrstuvwxyz";
-        // Get the length of the character set
-        final int length = characters.length();
-
-        // Create a StringBuilder to construct the random string
-        StringBuilder sb = new StringBuilder(resultLength);
-        for (int i = 0; i < resultLength; i++) {
-            // Generate a random index within the range of the character set length
-            int randomIndex = (int) (Math.random() * length);
-            // Append the character at the random index to the StringBuilder
-            sb.append(characters.charAt(randomIndex));
-        }
-        // Convert the StringBuilder to a string and return the random string
-        return sb.toString();
+        return IdGenerator.randomString(resultLength);
     }
 
-
     /**
      * Converts an InputStream to a byte array.
+     * <p>Use {@link #toByteArray(Path)} to read a file: its size is known, so it is read into an array at once.</p>
      *
      * @param input The InputStream to convert.
      * @return The byte array representing the InputStream content.
      * @throws IOException If an I/O error occurs.
      */
     public static byte @NotNull [] toByteArray(@NotNull InputStream input) throws IOException {
-        byte[] buffer = new byte[8192];
-        int bytesRead;
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        while ((bytesRead = input.read(buffer)) != -1) {
-            output.write(buffer, 0, bytesRead);
+        return input.readAllBytes();
+    }
+
+    /**
+     * Reads a whole file into a byte array, allocated once from the size of the file.
+     *
+     * @param path The file to read.
+     * @return The content of the file.
+     * @throws IOException If an I/O error occurs, or if the file is larger than 2 GiB.
+     */
+    public static byte @NotNull [] toByteArray(@NotNull Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return toByteArray(channel);
+        }
+    }
+
+    /**
+     * Reads a channel from its position to its end into a byte array, allocated once from the size of the channel.
+     * <p>The channel is not closed.</p>
+     *
+     * @param channel The channel to read.
+     * @return The content of the channel.
+     * @throws IOException If an I/O error occurs, or if the content is larger than 2 GiB.
+     */
+    public static byte @NotNull [] toByteArray(@NotNull FileChannel channel) throws IOException {
+        byte[] bytes = new byte[remaining(channel)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                //  The file shrank while it was read
+                return Arrays.copyOf(bytes, buffer.position());
+            }
+        }
+        if (channel.position() < channel.size()) {
+            //  The file grew while it was read
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length + 8192);
+            output.write(bytes);
+            output.write(Channels.newInputStream(channel).readAllBytes());
+            return output.toByteArray();
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a whole file into a read-only buffer, without copying it into a heap array when it is large.
+     * <p>Files of {@link #MAP_THRESHOLD} bytes or more are memory-mapped: their content is loaded by the OS when it
+     * is accessed, and stays valid after the file is closed. Smaller files are read into a heap buffer.</p>
+     *
+     * @param path The file to read.
+     * @return The read-only content of the file, positioned at 0.
+     * @throws IOException If an I/O error occurs, or if the file is larger than 2 GiB.
+     */
+    public static @NotNull ByteBuffer toByteBuffer(@NotNull Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return toByteBuffer(channel);
         }
-        return output.toByteArray();
+    }
+
+    /**
+     * Reads a channel from its position to its end into a read-only buffer, see {@link #toByteBuffer(Path)}.
+     * <p>The channel is not closed, and its position is moved to the end of the read content.</p>
+     *
+     * @param channel The channel to read.
+     * @return The read-only content of the channel, positioned at 0.
+     * @throws IOException If an I/O error occurs, or if the content is larger than 2 GiB.
+     */
+    public static @NotNull ByteBuffer toByteBuffer(@NotNull FileChannel channel) throws IOException {
+        int size = remaining(channel);
+        if (size < MAP_THRESHOLD) return ByteBuffer.wrap(toByteArray(channel)).asReadOnlyBuffer();
+        long position = channel.position();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        channel.position(position + size);
+        return buffer;
+    }
+
+    private static int remaining(@NotNull FileChannel channel) throws IOException {
+        long remaining = Math.max(0L, channel.size() - channel.position());
+        if (remaining > Integer.MAX_VALUE - 8) throw new IOException("File too large: " + remaining + " bytes");
+        return (int) remaining;
     }
 }
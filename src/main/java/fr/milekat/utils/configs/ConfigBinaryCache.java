@@ -0,0 +1,233 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Compact binary copy of a parsed YAML document, stored next to its source to skip YAML parsing on the next boot.
+ *
+ * <p>The cache file of {@code config.yml} is {@code .config.yml.snapshot}. It starts with a header holding
+ * the SHA-256 digest of the YAML content it was built from, so it is only used while the source is unchanged.
+ * It is memory-mapped when read. Documents holding values other than maps, lists, strings, numbers and
+ * booleans (e.g. YAML timestamps) are not cached.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+public final class ConfigBinaryCache {
+    private static final int MAGIC = 0x4D4B4353;
+    private static final byte VERSION = 2;
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final byte NULL = 0;
+    private static final byte MAP = 1;
+    private static final byte LIST = 2;
+    private static final byte STRING = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte TRUE = 7;
+    private static final byte FALSE = 8;
+    private static final byte BIG_INTEGER = 9;
+
+    private ConfigBinaryCache() {}
+
+    /**
+     * Gets the cache file of a configuration file.
+     *
+     * @param source The YAML configuration file.
+     * @return The path of its binary snapshot.
+     */
+    public static @NotNull Path cacheFile(@NotNull File source) {
+        Path path = source.toPath().toAbsolutePath();
+        return path.resolveSibling("." + path.getFileName() + ".snapshot");
+    }
+
+    /**
+     * Digests the content of a configuration file.
+     *
+     * @param content The raw content of the file.
+     * @return The SHA-256 digest of the content.
+     */
+    public static byte @NotNull [] digest(byte @NotNull [] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException exception) {
+            //  Every Java platform is required to support SHA-256
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Loads a cached document, if it was built from the content with the given digest.
+     *
+     * @param cacheFile The cache file.
+     * @param digest    The {@link #digest(byte[]) digest} of the current YAML content.
+     * @return The unmodifiable root map, or null if the cache is missing, outdated or corrupted.
+     */
+    public static @Nullable Map<String, Object> read(@NotNull Path cacheFile, byte @NotNull [] digest) {
+        if (!Files.isRegularFile(cacheFile)) return null;
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION) return null;
+            byte[] cachedDigest = new byte[DIGEST_LENGTH];
+            buffer.get(cachedDigest);
+            if (!MessageDigest.isEqual(cachedDigest, digest)) return null;
+            Object document = decode(buffer);
+            return document instanceof Map<?, ?> ? castMap(document) : null;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores a document in the cache, replacing the previous cache atomically.
+     * <p>Failures are ignored: the cache is only an optimization.</p>
+     *
+     * @param cacheFile The cache file.
+     * @param digest    The {@link #digest(byte[]) digest} of the YAML content the document was parsed from.
+     * @param document  The parsed root map.
+     * @throws IllegalArgumentException If the digest is not a SHA-256 digest.
+     */
+    public static void write(@NotNull Path cacheFile, byte @NotNull [] digest, @NotNull Map<String, Object> document) {
+        if (digest.length != DIGEST_LENGTH) throw new IllegalArgumentException("Not a SHA-256 digest");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.write(digest);
+            encode(output, document);
+        } catch (IOException | IllegalArgumentException ignored) {
+            return;
+        }
+        Path temporary = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try {
+            Files.write(temporary, bytes.toByteArray());
+            Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignored) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignoredAgain) {
+            }
+        }
+    }
+
+    private static void encode(@NotNull DataOutputStream output, @Nullable Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof Map<?, ?> map) {
+            output.writeByte(MAP);
+            output.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(output, String.valueOf(entry.getKey()));
+                encode(output, entry.getValue());
+            }
+        } else if (value instanceof List<?> list) {
+            output.writeByte(LIST);
+            output.writeInt(list.size());
+            for (Object element : list) encode(output, element);
+        } else if (value instanceof String string) {
+            output.writeByte(STRING);
+            writeString(output, string);
+        } else if (value instanceof Integer integer) {
+            output.writeByte(INT);
+            output.writeInt(integer);
+        } else if (value instanceof Long longValue) {
+            output.writeByte(LONG);
+            output.writeLong(longValue);
+        } else if (value instanceof Double doubleValue) {
+            output.writeByte(DOUBLE);
+            output.writeDouble(doubleValue);
+        } else if (value instanceof Boolean bool) {
+            output.writeByte(bool ? TRUE : FALSE);
+        } else if (value instanceof BigInteger bigInteger) {
+            output.writeByte(BIG_INTEGER);
+            writeString(output, bigInteger.toString());
+        } else {
+            throw new IllegalArgumentException("Unsupported value type: " + value.getClass().getName());
+        }
+    }
+
+    private static void writeString(@NotNull DataOutputStream output, @NotNull String string) throws IOException {
+        byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(utf8.length);
+        output.write(utf8);
+    }
+
+    private static @Nullable Object decode(@NotNull MappedByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case MAP: {
+                int size = readSize(buffer);
+                Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 4 / 3 + 1));
+                for (int i = 0; i < size; i++) {
+                    String key = readString(buffer);
+                    map.put(key, decode(buffer));
+                }
+                return Collections.unmodifiableMap(map);
+            }
+            case LIST: {
+                int size = readSize(buffer);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) list.add(decode(buffer));
+                return Collections.unmodifiableList(list);
+            }
+            case STRING:
+                return readString(buffer);
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BIG_INTEGER:
+                return new BigInteger(readString(buffer));
+            default:
+                throw new IllegalArgumentException("Unknown tag: " + tag);
+        }
+    }
+
+    /**
+     * Reads a size, rejecting sizes a corrupted file could use to trigger huge allocations.
+     */
+    private static int readSize(@NotNull MappedByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0 || size > buffer.remaining()) throw new IllegalArgumentException("Invalid size: " + size);
+        return size;
+    }
+
+    private static @NotNull String readString(@NotNull MappedByteBuffer buffer) {
+        int length = readSize(buffer);
+        byte[] utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @NotNull Map<String, Object> castMap(@NotNull Object document) {
+        return (Map<String, Object>) document;
+    }
+}
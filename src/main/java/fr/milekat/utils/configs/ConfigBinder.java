@@ -0,0 +1,221 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Binds configuration sections to records.
+ *
+ * <p>Each record component is read from the child node of the section with the same name.
+ * The binding plan of a record type (canonical constructor handle, converters and defaults) is built once
+ * by reflection, then cached, so binding the same type again, e.g. after a reload, does no reflection at all.
+ *
+ * <p>Supported component types are {@code String}, {@code int}, {@code long}, {@code double}, {@code boolean}
+ * (and their wrappers), enums, {@code List}, {@code Map} and nested records.
+ * When a node is missing or cannot be converted, the {@link ConfigDefault} value is used if present,
+ * otherwise {@code ""} for strings, {@code 0}/{@code false} for primitives, an empty collection for lists and maps,
+ * an all-defaults instance for records, and {@code null} for other types.
+ *
+ * <pre>{@code
+ * public record SqlSettings(@ConfigDefault("localhost") String hostname, @ConfigDefault("3306") int port) {}
+ *
+ * SqlSettings settings = configs.bind("storage.sql", SqlSettings.class);
+ * }</pre>
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class ConfigBinder {
+    /** Binding plans, weakly tied to their record class so plugin class loaders are not retained */
+    private static final ClassValue<Plan> PLANS = new ClassValue<>() {
+        @Override
+        protected Plan computeValue(@NotNull Class<?> type) {
+            return new Plan(type);
+        }
+    };
+
+    private ConfigBinder() {}
+
+    /**
+     * Binds a section of a snapshot to a record.
+     *
+     * @param snapshot The snapshot to read from.
+     * @param path     The dotted path to the section, or an empty string for the root of the configuration.
+     * @param type     The record type.
+     * @param <T>      The record type.
+     * @return The new record, with defaults for every missing node.
+     * @throws IllegalArgumentException If the type is not a record, or has an unsupported component type.
+     */
+    public static <T extends Record> @NotNull T bind(@NotNull ConfigSnapshot snapshot, @NotNull String path,
+                                                     @NotNull Class<T> type) {
+        Map<?, ?> section;
+        if (path.isEmpty()) {
+            section = snapshot.getRoot();
+        } else {
+            ConfigValue value = snapshot.getValue(path);
+            section = value != null ? value.asSection() : null;
+        }
+        return bind(section != null ? section : Collections.emptyMap(), type);
+    }
+
+    /**
+     * Binds an already resolved section to a record.
+     *
+     * @param section The section to read from.
+     * @param type    The record type.
+     * @param <T>     The record type.
+     * @return The new record, with defaults for every missing node.
+     */
+    public static <T extends Record> @NotNull T bind(@NotNull Map<?, ?> section, @NotNull Class<T> type) {
+        return type.cast(PLANS.get(type).bind(section));
+    }
+
+    /**
+     * Cached binding plan of a record type.
+     */
+    private static final class Plan {
+        private final String[] names;
+        private final List<Function<Object, Object>> converters;
+        private final Object[] defaults;
+        private final MethodHandle constructor;
+
+        private Plan(@NotNull Class<?> type) {
+            if (!type.isRecord()) {
+                throw new IllegalArgumentException(type.getName() + " is not a record");
+            }
+            RecordComponent[] components = type.getRecordComponents();
+            this.names = new String[components.length];
+            this.converters = new ArrayList<>(components.length);
+            this.defaults = new Object[components.length];
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                RecordComponent component = components[i];
+                names[i] = component.getName();
+                parameterTypes[i] = component.getType();
+                Function<Object, Object> converter = converter(component.getType(), component.getGenericType());
+                converters.add(converter);
+                ConfigDefault def = component.getAnnotation(ConfigDefault.class);
+                Object converted = def != null ? converter.apply(def.value()) : null;
+                defaults[i] = converted != null ? converted : implicitDefault(component.getType());
+            }
+            try {
+                Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+                canonical.setAccessible(true);
+                this.constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                        .asSpreader(Object[].class, components.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (NoSuchMethodException | IllegalAccessException | RuntimeException exception) {
+                throw new IllegalArgumentException("Cannot access the canonical constructor of " + type.getName(),
+                        exception);
+            }
+        }
+
+        private @NotNull Object bind(@NotNull Map<?, ?> section) {
+            Object[] arguments = new Object[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Object raw = section.get(names[i]);
+                Object converted = raw != null ? converters.get(i).apply(raw) : null;
+                arguments[i] = converted != null ? converted : defaults[i];
+            }
+            try {
+                return (Object) constructor.invokeExact(arguments);
+            } catch (RuntimeException | Error exception) {
+                throw exception;
+            } catch (Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+        }
+    }
+
+    /**
+     * Creates the converter of a component type, returning null when a raw value cannot be converted.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static @NotNull Function<Object, Object> converter(@NotNull Class<?> type, @NotNull Type genericType) {
+        if (type == String.class) return Object::toString;
+        if (type == int.class || type == Integer.class) {
+            return raw -> raw instanceof Integer ? raw : parse(raw, Integer::valueOf);
+        }
+        if (type == long.class || type == Long.class) {
+            return raw -> raw instanceof Long ? raw : parse(raw, Long::valueOf);
+        }
+        if (type == double.class || type == Double.class) {
+            return raw -> raw instanceof Double ? raw : parse(raw, Double::valueOf);
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return raw -> raw instanceof Boolean ? raw : parse(raw, text ->
+                    text.equalsIgnoreCase("true") ? Boolean.TRUE :
+                            text.equalsIgnoreCase("false") ? Boolean.FALSE : null);
+        }
+        if (type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+            return raw -> parse(raw, text -> {
+                try {
+                    return Enum.valueOf(enumType, text);
+                } catch (IllegalArgumentException ignored) {
+                    return Enum.valueOf(enumType, text.toUpperCase(Locale.ROOT));
+                }
+            });
+        }
+        if (type.isRecord()) {
+            Class<? extends Record> recordType = (Class<? extends Record>) type;
+            return raw -> raw instanceof Map<?, ?> map ? bind(map, recordType) : null;
+        }
+        if (type == List.class || type == Collection.class) {
+            boolean strings = typeArgument(genericType, 0) == String.class;
+            return raw -> {
+                if (!(raw instanceof Collection<?> collection)) return null;
+                List<Object> list = new ArrayList<>(collection.size());
+                collection.forEach(element -> list.add(strings ? String.valueOf(element) : element));
+                return Collections.unmodifiableList(list);
+            };
+        }
+        if (type == Map.class) {
+            boolean strings = typeArgument(genericType, 1) == String.class;
+            return raw -> {
+                if (!(raw instanceof Map<?, ?> map)) return null;
+                Map<String, Object> copy = new LinkedHashMap<>();
+                map.forEach((key, value) -> copy.put(String.valueOf(key), strings ? String.valueOf(value) : value));
+                return Collections.unmodifiableMap(copy);
+            };
+        }
+        throw new IllegalArgumentException("Unsupported record component type: " + genericType.getTypeName());
+    }
+
+    private static @Nullable Object parse(@NotNull Object raw, @NotNull Function<String, Object> parser) {
+        try {
+            return parser.apply(raw.toString().trim());
+        } catch (IllegalArgumentException ignored) {
+            return null;
+        }
+    }
+
+    private static @Nullable Type typeArgument(@NotNull Type genericType, int index) {
+        if (genericType instanceof ParameterizedType parameterized &&
+                parameterized.getActualTypeArguments().length > index) {
+            return parameterized.getActualTypeArguments()[index];
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @Nullable Object implicitDefault(@NotNull Class<?> type) {
+        if (type == String.class) return "";
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0D;
+        if (type == boolean.class) return false;
+        if (type == List.class || type == Collection.class) return Collections.emptyList();
+        if (type == Map.class) return Collections.emptyMap();
+        if (type.isRecord()) return bind(Collections.emptyMap(), (Class<? extends Record>) type);
+        return null;
+    }
+}
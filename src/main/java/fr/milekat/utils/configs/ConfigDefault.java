@@ -0,0 +1,28 @@
+package fr.milekat.utils.configs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Default value of a record component bound with {@link ConfigBinder}, used when the node is missing or invalid.
+ * <p>The value is written as it would be in the YAML file, and converted once to the component type.</p>
+ *
+ * <pre>{@code
+ * public record SqlSettings(@ConfigDefault("localhost") String hostname, @ConfigDefault("3306") int port) {}
+ * }</pre>
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface ConfigDefault {
+    /**
+     * Gets the default value.
+     *
+     * @return The default value, as written in a YAML file.
+     */
+    String value();
+}
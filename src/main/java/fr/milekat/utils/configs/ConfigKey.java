@@ -0,0 +1,169 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Precompiled handle to a configuration node.
+ *
+ * <p>A key remembers the node it resolved to in the last snapshot it was read from,
+ * so repeated reads against the same snapshot skip the lookup entirely.
+ * Keys are meant to be declared once, as constants:
+ * <pre>{@code
+ * private static final ConfigKey<Integer> MAX_PLAYERS = ConfigKey.ofInt("game.max-players", 16);
+ *
+ * int maxPlayers = configs.getInt(MAX_PLAYERS);
+ * }</pre>
+ *
+ * @param <T> The type of the value this key reads.
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class ConfigKey<T> {
+    private final String path;
+    private final Class<T> type;
+    private final T def;
+
+    /** Node resolved in the last snapshot read through this key, replaced only when the snapshot changes */
+    private volatile Resolution resolution;
+
+    private record Resolution(ConfigSnapshot snapshot, ConfigValue value) {}
+
+    private ConfigKey(@NotNull String path, @NotNull Class<T> type, @NotNull T def) {
+        this.path = path;
+        this.type = type;
+        this.def = def;
+    }
+
+    /**
+     * Creates a key reading a string value.
+     *
+     * @param path The dotted path to the node.
+     * @param def  The default value.
+     * @return The new key.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull ConfigKey<String> ofString(@NotNull String path, @NotNull String def) {
+        return new ConfigKey<>(path, String.class, def);
+    }
+
+    /**
+     * Creates a key reading an integer value.
+     *
+     * @param path The dotted path to the node.
+     * @param def  The default value.
+     * @return The new key.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull ConfigKey<Integer> ofInt(@NotNull String path, int def) {
+        return new ConfigKey<>(path, Integer.class, def);
+    }
+
+    /**
+     * Creates a key reading a long value.
+     *
+     * @param path The dotted path to the node.
+     * @param def  The default value.
+     * @return The new key.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull ConfigKey<Long> ofLong(@NotNull String path, long def) {
+        return new ConfigKey<>(path, Long.class, def);
+    }
+
+    /**
+     * Creates a key reading a double value.
+     *
+     * @param path The dotted path to the node.
+     * @param def  The default value.
+     * @return The new key.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull ConfigKey<Double> ofDouble(@NotNull String path, double def) {
+        return new ConfigKey<>(path, Double.class, def);
+    }
+
+    /**
+     * Creates a key reading a boolean value.
+     *
+     * @param path The dotted path to the node.
+     * @param def  The default value.
+     * @return The new key.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull ConfigKey<Boolean> ofBoolean(@NotNull String path, boolean def) {
+        return new ConfigKey<>(path, Boolean.class, def);
+    }
+
+    /**
+     * Resolves this key against a snapshot.
+     *
+     * @param snapshot The snapshot to read from.
+     * @return The node this key points to, or null if the node is not found.
+     */
+    public @Nullable ConfigValue resolve(@NotNull ConfigSnapshot snapshot) {
+        Resolution current = resolution;
+        if (current != null && current.snapshot == snapshot) return current.value;
+        ConfigValue value = snapshot.getValue(path);
+        resolution = new Resolution(snapshot, value);
+        return value;
+    }
+
+    /**
+     * Reads the value of this key from a snapshot.
+     *
+     * @param snapshot The snapshot to read from.
+     * @return The value of the node, or the default value if the node is not found or has the wrong type.
+     */
+    public @NotNull T read(@NotNull ConfigSnapshot snapshot) {
+        ConfigValue value = resolve(snapshot);
+        if (value == null) return def;
+        Object converted;
+        if (type == String.class) {
+            converted = value.asString();
+        } else if (type == Integer.class) {
+            converted = value.isInt() ? value.asInt(0) : null;
+        } else if (type == Long.class) {
+            converted = value.isLong() ? value.asLong(0L) : null;
+        } else if (type == Double.class) {
+            converted = value.isDouble() ? value.asDouble(0D) : null;
+        } else {
+            converted = value.isBoolean() ? value.getRaw() : null;
+        }
+        return converted != null ? type.cast(converted) : def;
+    }
+
+    /**
+     * Gets the dotted path of this key.
+     *
+     * @return The path.
+     */
+    public @NotNull String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the type of the value this key reads.
+     *
+     * @return The value type.
+     */
+    public @NotNull Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the default value of this key.
+     *
+     * @return The default value.
+     */
+    public @NotNull T getDefault() {
+        return def;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigKey{" + path + "}";
+    }
+}
@@ -0,0 +1,24 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Callback notified when nodes of a configuration change.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@FunctionalInterface
+public interface ConfigListener {
+    /**
+     * Called after a new snapshot of the configuration has been published.
+     * <p>Listeners run on the thread that published the snapshot (the watcher thread when hot reload is enabled),
+     * so they should hand heavy work over to another thread.</p>
+     *
+     * @param snapshot     The new snapshot.
+     * @param changedPaths The dotted paths of the changed values this listener is subscribed to (never empty).
+     */
+    void onChange(@NotNull ConfigSnapshot snapshot, @NotNull Set<String> changedPaths);
+}
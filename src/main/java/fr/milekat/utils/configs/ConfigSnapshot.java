@@ -0,0 +1,320 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable, fully parsed view of a configuration, made of one or more {@link ConfigSource} layers.
+ *
+ * <p>A snapshot is stamped with the {@link ConfigSource#lastModified()} and {@link ConfigSource#length()}
+ * of each layer it was loaded from,
+ * so a reader can tell whether a layer changed since without reading it again.
+ * Snapshots are never mutated once built, which makes them safe to share between threads.
+ *
+ * <p>Layers are merged once, when the snapshot is loaded, and every node of the merged document,
+ * sections included, is indexed by its full dotted path (e.g. {@code storage.sql.hostname}).
+ * A lookup is then a single hash probe whatever the depth of the node and the number of layers.
+ * Messages compiled from a snapshot are cached in it, and are dropped with it when the configuration is reloaded.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class ConfigSnapshot {
+    /** Snapshot used when there is no layer to read from */
+    public static final ConfigSnapshot EMPTY = new ConfigSnapshot(Collections.emptyMap(), Stamps.of());
+
+    /** Root node of the parsed document */
+    private final Map<String, Object> root;
+
+    /** Every node of the document, indexed by its full dotted path */
+    private final Map<String, ConfigValue> index;
+
+    /** Message templates compiled from this snapshot, by path */
+    private final ConcurrentMap<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+
+    /** Message template lists compiled from this snapshot, by path */
+    private final ConcurrentMap<String, List<MessageTemplate>> templateLists = new ConcurrentHashMap<>();
+
+    /** Stamps of the layers when they were read */
+    private final Stamps stamps;
+
+    /**
+     * Modification times and sizes of layers, in layer order.
+     */
+    private record Stamps(long @NotNull [] lastModified, long @NotNull [] lengths) {
+        private static @NotNull Stamps of(@NotNull ConfigSource @NotNull ... sources) {
+            long[] lastModified = new long[sources.length];
+            long[] lengths = new long[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                lastModified[i] = sources[i].lastModified();
+                lengths[i] = sources[i].length();
+            }
+            return new Stamps(lastModified, lengths);
+        }
+
+        private boolean matches(@NotNull ConfigSource @NotNull [] sources) {
+            if (sources.length != lastModified.length) return false;
+            for (int i = 0; i < sources.length; i++) {
+                if (sources[i].lastModified() != lastModified[i] || sources[i].length() != lengths[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    private ConfigSnapshot(@NotNull Map<String, Object> root, @NotNull Stamps stamps) {
+        this.root = root;
+        this.index = new HashMap<>();
+        this.stamps = stamps;
+        flatten("", root);
+    }
+
+    private ConfigSnapshot(@NotNull ConfigSnapshot nodes, @NotNull Stamps stamps) {
+        this.root = nodes.root;
+        this.index = nodes.index;
+        this.stamps = stamps;
+    }
+
+    /**
+     * Indexes every node of a section under its full dotted path.
+     */
+    private void flatten(@NotNull String prefix, @NotNull Map<?, ?> section) {
+        section.forEach((key, value) -> {
+            if (value == null) return;
+            String path = prefix + key;
+            index.put(path, new ConfigValue(value));
+            if (value instanceof Map<?, ?> child) flatten(path + ".", child);
+        });
+    }
+
+    /**
+     * Loads a YAML file into a new snapshot.
+     *
+     * @param file The YAML file to parse.
+     * @return The parsed snapshot, empty if the file cannot be read.
+     */
+    public static @NotNull ConfigSnapshot load(@NotNull File file) {
+        return loadOrKeep(null, ConfigSource.yaml(file));
+    }
+
+    /**
+     * Loads layers and merges them into a new snapshot, later layers overriding earlier ones.
+     * <p>Layers are stamped before they are read, so a change made while loading is picked up on the next check.
+     * Sections are merged key by key, any other value replaces the previous one, and null values are ignored.</p>
+     *
+     * @param sources The layers, from the lowest to the highest priority.
+     * @return The merged snapshot.
+     * @throws IOException If a layer cannot be read.
+     */
+    public static @NotNull ConfigSnapshot load(@NotNull ConfigSource @NotNull ... sources) throws IOException {
+        if (sources.length == 0) return EMPTY;
+        return load(Stamps.of(sources), sources);
+    }
+
+    /**
+     * Loads layers and merges them into a new snapshot, keeping the nodes of a previous snapshot
+     * if a layer cannot be read (e.g. a file being rewritten, missing or truncated).
+     * <p>The snapshot is stamped with the current stamps of the layers either way, so a layer that cannot be read
+     * is only read again once it changes.</p>
+     *
+     * @param previous The snapshot whose nodes are kept, or null to keep no node.
+     * @param sources  The layers, from the lowest to the highest priority.
+     * @return The merged snapshot, or a snapshot with the nodes of the previous one.
+     */
+    public static @NotNull ConfigSnapshot loadOrKeep(@Nullable ConfigSnapshot previous,
+                                                     @NotNull ConfigSource @NotNull ... sources) {
+        if (sources.length == 0) return EMPTY;
+        Stamps stamps = Stamps.of(sources);
+        try {
+            return load(stamps, sources);
+        } catch (IOException ignored) {
+            return new ConfigSnapshot(previous != null ? previous : EMPTY, stamps);
+        }
+    }
+
+    private static @NotNull ConfigSnapshot load(@NotNull Stamps stamps, @NotNull ConfigSource @NotNull [] sources)
+            throws IOException {
+        if (sources.length == 1) return new ConfigSnapshot(freezeMap(sources[0].load()), stamps);
+        Map<String, Object> merged = new LinkedHashMap<>();
+        for (ConfigSource source : sources) {
+            merge(merged, source.load(), source.isRelaxed());
+        }
+        return new ConfigSnapshot(freezeMap(merged), stamps);
+    }
+
+    /**
+     * Checks if one of the layers changed since this snapshot was loaded.
+     * <p>This only reads the stamps of the layers and does not allocate.</p>
+     *
+     * @param sources The layers this snapshot was loaded from.
+     * @return true if the modification time or the size of a layer differs from this snapshot.
+     */
+    public boolean isStale(@NotNull ConfigSource @NotNull [] sources) {
+        return !stamps.matches(sources);
+    }
+
+    /**
+     * Merges a layer into the sections merged so far.
+     */
+    @SuppressWarnings("unchecked")
+    private static void merge(@NotNull Map<String, Object> target, @NotNull Map<?, ?> layer, boolean relaxed) {
+        layer.forEach((rawKey, value) -> {
+            if (value == null) return;
+            String key = String.valueOf(rawKey);
+            if (relaxed) key = findRelaxedKey(target, key);
+            Object current = target.get(key);
+            if (value instanceof Map<?, ?> section) {
+                Map<String, Object> merged;
+                if (current instanceof Map) {
+                    merged = (Map<String, Object>) current;
+                } else {
+                    merged = new LinkedHashMap<>();
+                    target.put(key, merged);
+                }
+                merge(merged, section, relaxed);
+            } else {
+                target.put(key, value);
+            }
+        });
+    }
+
+    /**
+     * Finds the existing key matching a key loosely (ignoring case, dashes and underscores).
+     *
+     * @return The existing key, or the given key if none matches.
+     */
+    private static @NotNull String findRelaxedKey(@NotNull Map<String, Object> target, @NotNull String key) {
+        if (target.containsKey(key)) return key;
+        String normalized = normalize(key);
+        for (String existing : target.keySet()) {
+            if (normalize(existing).equals(normalized)) return existing;
+        }
+        return key;
+    }
+
+    private static @NotNull String normalize(@NotNull String key) {
+        StringBuilder normalized = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '-' && c != '_') normalized.append(Character.toLowerCase(c));
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Retrieves a node of this snapshot.
+     *
+     * @param path The dotted path to the node.
+     * @return The node, or null if the node is not found.
+     */
+    public @Nullable ConfigValue getValue(@NotNull String path) {
+        return index.get(path);
+    }
+
+    /**
+     * Retrieves the value of a node in this snapshot.
+     *
+     * @param path The dotted path to the node.
+     * @return The value of the node, or null if the node is not found.
+     */
+    public @Nullable Object get(@NotNull String path) {
+        ConfigValue value = index.get(path);
+        return value != null ? value.getRaw() : null;
+    }
+
+    /**
+     * Gets the message template compiled from a node, compiling it on first use.
+     *
+     * @param path The dotted path to the message.
+     * @return The compiled template, or null if the node is not found.
+     */
+    public @Nullable MessageTemplate getMessageTemplate(@NotNull String path) {
+        MessageTemplate template = templates.get(path);
+        if (template != null) return template;
+        ConfigValue value = index.get(path);
+        if (value == null) return null;
+        return templates.computeIfAbsent(path, ignored -> MessageTemplate.compile(value.asString()));
+    }
+
+    /**
+     * Gets the message templates compiled from a list node, compiling them on first use.
+     *
+     * @param path The dotted path to the list of messages.
+     * @return The unmodifiable list of compiled templates, empty if the node is not found or is not a list.
+     */
+    public @NotNull List<MessageTemplate> getMessageTemplates(@NotNull String path) {
+        List<MessageTemplate> compiled = templateLists.get(path);
+        if (compiled != null) return compiled;
+        return templateLists.computeIfAbsent(path, ignored -> {
+            Object raw = get(path);
+            if (!(raw instanceof Collection<?> lines)) return Collections.emptyList();
+            List<MessageTemplate> list = new ArrayList<>(lines.size());
+            lines.forEach(line -> list.add(MessageTemplate.compile(String.valueOf(line))));
+            return Collections.unmodifiableList(list);
+        });
+    }
+
+    /**
+     * Gets every dotted path indexed in this snapshot, sections included.
+     *
+     * @return The unmodifiable set of paths.
+     */
+    public @NotNull Set<String> getPaths() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Computes the paths of the values that differ between a previous snapshot and this one.
+     * <p>Only values are compared: a section is reported through the paths of its changed values.</p>
+     *
+     * @param previous The snapshot this one replaces.
+     * @return The dotted paths of the added, removed and modified values.
+     */
+    public @NotNull Set<String> diff(@NotNull ConfigSnapshot previous) {
+        if (previous.index == index) return Collections.emptySet();
+        Set<String> changed = new HashSet<>();
+        previous.index.forEach((path, value) -> {
+            if (value.asSection() != null) return;
+            ConfigValue current = index.get(path);
+            if (current == null || !value.getRaw().equals(current.getRaw())) changed.add(path);
+        });
+        index.forEach((path, value) -> {
+            if (value.asSection() == null && !previous.index.containsKey(path)) changed.add(path);
+        });
+        return changed;
+    }
+
+    /**
+     * Gets the root node of this snapshot.
+     *
+     * @return The unmodifiable root map.
+     */
+    public @NotNull Map<String, Object> getRoot() {
+        return root;
+    }
+
+    /**
+     * Deeply copies a parsed YAML map into unmodifiable collections.
+     */
+    static @NotNull Map<String, Object> freezeMap(@NotNull Map<?, ?> map) {
+        Map<String, Object> frozen = new LinkedHashMap<>(Math.max(4, map.size() * 4 / 3 + 1));
+        map.forEach((key, value) -> frozen.put(String.valueOf(key), freeze(value)));
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    private static @Nullable Object freeze(@Nullable Object value) {
+        if (value instanceof Map<?, ?> map) return freezeMap(map);
+        if (value instanceof Collection<?> collection) {
+            List<Object> frozen = new ArrayList<>(collection.size());
+            collection.forEach(element -> frozen.add(freeze(element)));
+            return Collections.unmodifiableList(frozen);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,136 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Layer of a {@link fr.milekat.utils.Configs}: a YAML file, environment variables or system properties.
+ *
+ * <p>Layers are merged in order into a single snapshot when it is loaded, later layers overriding earlier ones:
+ * <pre>{@code
+ * Configs configs = new Configs(List.of(
+ *         ConfigSource.yaml(new File("defaults.yml")),
+ *         ConfigSource.yaml(new File(dataFolder, "config.yml")),
+ *         ConfigSource.environment("MILEKAT_"),
+ *         ConfigSource.systemProperties("milekat.")));
+ * }</pre>
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+public interface ConfigSource {
+    /**
+     * Reads this layer.
+     * <p>A layer that cannot be read must throw rather than return an empty tree,
+     * so that a configuration being rewritten does not replace the loaded one with nothing.</p>
+     *
+     * @return The tree of this layer (nested maps), possibly unmodifiable.
+     * @throws IOException If the layer cannot be read, or is not a tree (e.g. a missing or empty file).
+     */
+    @NotNull Map<?, ?> load() throws IOException;
+
+    /**
+     * Gets the modification time of this layer, compared with its value when the layer was loaded to detect changes.
+     * <p>While hot reload is disabled, it is read on configuration reads at most once per check interval,
+     * so it must be cheap and not allocate.</p>
+     *
+     * @return The modification time (epoch milliseconds), or 0 if it is unknown or the layer is missing.
+     */
+    long lastModified();
+
+    /**
+     * Gets the size of this layer, compared along with {@link #lastModified()} to detect changes.
+     *
+     * @return The size (in bytes), or 0 if it is unknown.
+     */
+    default long length() {
+        return 0L;
+    }
+
+    /**
+     * Checks if the keys of this layer are matched loosely against the keys of the previous layers:
+     * ignoring case, dashes and underscores, so {@code SSLFINGERPRINT} overrides {@code sslFingerprint}.
+     *
+     * @return true if keys are matched loosely.
+     */
+    default boolean isRelaxed() {
+        return false;
+    }
+
+    /**
+     * Gets the file this layer is read from, to be watched by hot reload.
+     *
+     * @return The file, or null if this layer is not backed by a file.
+     */
+    default @Nullable File getFile() {
+        return null;
+    }
+
+    /**
+     * Creates a layer reading a YAML file.
+     *
+     * @param file The YAML file.
+     * @return The new layer.
+     */
+    @Contract("_ -> new")
+    static @NotNull ConfigSource yaml(@NotNull File file) {
+        return new YamlConfigSource(file, false);
+    }
+
+    /**
+     * Creates a layer reading a YAML file, optionally through a binary snapshot stored next to it.
+     *
+     * @param file        The YAML file.
+     * @param binaryCache true to persist and reuse a binary snapshot of the parsed file.
+     * @return The new layer.
+     * @see ConfigBinaryCache
+     */
+    @Contract("_, _ -> new")
+    static @NotNull ConfigSource yaml(@NotNull File file, boolean binaryCache) {
+        return new YamlConfigSource(file, binaryCache);
+    }
+
+    /**
+     * Creates a layer reading the environment variables starting with a prefix.
+     * <p>The prefix is removed, and each {@code _} separates two keys:
+     * with the {@code MILEKAT_} prefix, {@code MILEKAT_STORAGE_SQL_HOSTNAME} sets {@code storage.sql.hostname}.
+     * Keys are matched loosely, see {@link #isRelaxed()}.</p>
+     *
+     * @param prefix The prefix of the variables to read.
+     * @return The new layer.
+     */
+    @Contract("_ -> new")
+    static @NotNull ConfigSource environment(@NotNull String prefix) {
+        return environment(prefix, System.getenv());
+    }
+
+    /**
+     * Creates a layer reading variables starting with a prefix, the same way as {@link #environment(String)}.
+     *
+     * @param prefix    The prefix of the variables to read.
+     * @param variables The variables.
+     * @return The new layer.
+     */
+    @Contract("_, _ -> new")
+    static @NotNull ConfigSource environment(@NotNull String prefix, @NotNull Map<String, String> variables) {
+        return new PropertiesConfigSource(prefix, '_', true, () -> variables);
+    }
+
+    /**
+     * Creates a layer reading the system properties starting with a prefix.
+     * <p>The prefix is removed and the rest is the dotted path: with the {@code milekat.} prefix,
+     * {@code -Dmilekat.storage.sql.hostname=db} sets {@code storage.sql.hostname}.</p>
+     *
+     * @param prefix The prefix of the properties to read.
+     * @return The new layer.
+     */
+    @Contract("_ -> new")
+    static @NotNull ConfigSource systemProperties(@NotNull String prefix) {
+        return new PropertiesConfigSource(prefix, '.', false, System::getProperties);
+    }
+}
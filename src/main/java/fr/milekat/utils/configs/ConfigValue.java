@@ -0,0 +1,192 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Single node of a {@link ConfigSnapshot}, with its numeric conversions computed once when the snapshot is built.
+ *
+ * <p>Conversions follow the historical {@code Configs} rules: a node is an int, a long or a double if its string
+ * form can be parsed as one, and a boolean only if YAML already parsed it as a boolean.
+ * Reading a converted value never allocates.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class ConfigValue {
+    /** Raw value as parsed by SnakeYAML (unmodifiable for maps and lists) */
+    private final Object raw;
+
+    /** String form of the value, computed lazily for maps and lists */
+    private String text;
+
+    private final boolean isInt;
+    private final int intValue;
+    private final boolean isLong;
+    private final long longValue;
+    private final boolean isDouble;
+    private final double doubleValue;
+
+    ConfigValue(@NotNull Object raw) {
+        this.raw = raw;
+        boolean parsedInt = false, parsedLong = false, parsedDouble = false;
+        int parsedIntValue = 0;
+        long parsedLongValue = 0L;
+        double parsedDoubleValue = 0D;
+        if (!(raw instanceof Map) && !(raw instanceof Collection)) {
+            this.text = raw.toString();
+            if (looksNumeric(text)) {
+                try {
+                    parsedIntValue = Integer.parseInt(text);
+                    parsedInt = true;
+                } catch (NumberFormatException ignored) {
+                }
+                try {
+                    parsedLongValue = Long.parseLong(text);
+                    parsedLong = true;
+                } catch (NumberFormatException ignored) {
+                }
+                try {
+                    parsedDoubleValue = Double.parseDouble(text);
+                    parsedDouble = true;
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        this.isInt = parsedInt;
+        this.intValue = parsedIntValue;
+        this.isLong = parsedLong;
+        this.longValue = parsedLongValue;
+        this.isDouble = parsedDouble;
+        this.doubleValue = parsedDoubleValue;
+    }
+
+    /**
+     * Cheap pre-check to avoid throwing {@link NumberFormatException} for every plain text node.
+     * Accepts everything {@link Double#parseDouble(String)} may accept as a first character.
+     */
+    private static boolean looksNumeric(@NotNull String text) {
+        if (text.isEmpty()) return false;
+        char first = text.charAt(0);
+        return (first >= '0' && first <= '9') || first == '-' || first == '+' || first == '.' ||
+                first == 'N' || first == 'I' || first <= ' ';
+    }
+
+    /**
+     * Gets the raw value of this node.
+     *
+     * @return The value as parsed by SnakeYAML.
+     */
+    public @NotNull Object getRaw() {
+        return raw;
+    }
+
+    /**
+     * Gets the string form of this node.
+     *
+     * @return The string value.
+     */
+    public @NotNull String asString() {
+        String value = text;
+        if (value == null) {
+            //  Racy but idempotent, like String#hashCode
+            value = raw.toString();
+            text = value;
+        }
+        return value;
+    }
+
+    /**
+     * Checks if this node can be read as an int.
+     *
+     * @return true if the string form of this node is a valid int.
+     */
+    public boolean isInt() {
+        return isInt;
+    }
+
+    /**
+     * Reads this node as an int.
+     *
+     * @param def The default value.
+     * @return The int value, or the default value if this node is not a valid int.
+     */
+    public int asInt(int def) {
+        return isInt ? intValue : def;
+    }
+
+    /**
+     * Checks if this node can be read as a long.
+     *
+     * @return true if the string form of this node is a valid long.
+     */
+    public boolean isLong() {
+        return isLong;
+    }
+
+    /**
+     * Reads this node as a long.
+     *
+     * @param def The default value.
+     * @return The long value, or the default value if this node is not a valid long.
+     */
+    public long asLong(long def) {
+        return isLong ? longValue : def;
+    }
+
+    /**
+     * Checks if this node can be read as a double.
+     *
+     * @return true if the string form of this node is a valid double.
+     */
+    public boolean isDouble() {
+        return isDouble;
+    }
+
+    /**
+     * Reads this node as a double.
+     *
+     * @param def The default value.
+     * @return The double value, or the default value if this node is not a valid double.
+     */
+    public double asDouble(double def) {
+        return isDouble ? doubleValue : def;
+    }
+
+    /**
+     * Checks if this node is a boolean.
+     *
+     * @return true if YAML parsed this node as a boolean.
+     */
+    public boolean isBoolean() {
+        return raw instanceof Boolean;
+    }
+
+    /**
+     * Reads this node as a boolean.
+     *
+     * @param def The default value.
+     * @return The boolean value, or the default value if this node is not a boolean.
+     */
+    public boolean asBoolean(boolean def) {
+        return raw instanceof Boolean ? (Boolean) raw : def;
+    }
+
+    /**
+     * Gets the children of this node, if it is a section.
+     *
+     * @return The unmodifiable section map, or null if this node is not a section.
+     */
+    public @Nullable Map<?, ?> asSection() {
+        return raw instanceof Map<?, ?> map ? map : null;
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
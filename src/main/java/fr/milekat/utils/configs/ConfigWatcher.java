@@ -0,0 +1,107 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a single file with a NIO {@link WatchService} and runs a callback once a burst of changes settles.
+ *
+ * <p>Editors usually save a file in several steps (truncate, write, rename...), so every event restarts
+ * a debounce delay and the callback only runs when no event was received during that delay.
+ * The callback runs on the watcher thread, which is a daemon thread.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+public final class ConfigWatcher implements AutoCloseable {
+    private final Path directory;
+    private final Path fileName;
+    private final long debounceMillis;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * Starts watching a file.
+     *
+     * @param file           The file to watch.
+     * @param debounceMillis Delay without any event before the callback runs (in milliseconds).
+     * @param onChange       Callback run on the watcher thread once the file settled.
+     * @throws IOException If the parent directory of the file cannot be watched.
+     */
+    public ConfigWatcher(@NotNull File file, long debounceMillis, @NotNull Runnable onChange) throws IOException {
+        Path path = file.toPath().toAbsolutePath();
+        this.directory = path.getParent();
+        this.fileName = path.getFileName();
+        this.debounceMillis = debounceMillis;
+        this.onChange = onChange;
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::run, "ConfigWatcher-" + fileName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (!concernsFile(watchService.take())) continue;
+                //  Wait for the burst of events to settle
+                WatchKey next;
+                while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    concernsFile(next);
+                }
+                try {
+                    onChange.run();
+                } catch (RuntimeException exception) {
+                    Thread current = Thread.currentThread();
+                    current.getUncaughtExceptionHandler().uncaughtException(current, exception);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            //  Watcher closed
+        }
+    }
+
+    /**
+     * Drains the events of a key and re-arms it.
+     *
+     * @return true if one of the events concerns the watched file.
+     */
+    private boolean concernsFile(@NotNull WatchKey key) {
+        boolean concerned = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                concerned = true;
+            }
+        }
+        key.reset();
+        return concerned;
+    }
+
+    /**
+     * Gets the directory watched by this watcher.
+     *
+     * @return The parent directory of the watched file.
+     */
+    public @NotNull Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stops watching the file.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+        thread.interrupt();
+    }
+}
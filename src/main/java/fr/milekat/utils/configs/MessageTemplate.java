@@ -0,0 +1,126 @@
+package fr.milekat.utils.configs;
+
+import fr.milekat.utils.McTools;
+import fr.milekat.utils.mctools.PlaceholderText;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minecraft message compiled once: colour codes are translated and {@code {placeholder}} positions are
+ * split into literal segments, so rendering is only a series of appends.
+ *
+ * <pre>{@code
+ * MessageTemplate join = configs.getMessageTemplate("messages.join");
+ * for (Player player : players) {
+ *     player.sendMessage(join.render("player", joined.getName(), "count", online));
+ * }
+ * }</pre>
+ *
+ * <p>Placeholder values are appended as they are: colour codes are not translated in them.
+ * A placeholder without a value is rendered as written ({@code {name}}).
+ * Templates are immutable and can be shared between threads.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class MessageTemplate {
+    /** Template of an empty message */
+    public static final MessageTemplate EMPTY = new MessageTemplate(PlaceholderText.split(""));
+
+    /** Translated text, split at its placeholders */
+    private final PlaceholderText text;
+
+    private MessageTemplate(@NotNull PlaceholderText text) {
+        this.text = text;
+    }
+
+    /**
+     * Compiles a message: translates its colour codes and locates its placeholders.
+     *
+     * @param message The raw message, with {@code &} colour codes and {@code {name}} placeholders.
+     * @return The compiled template.
+     */
+    @Contract("_ -> new")
+    public static @NotNull MessageTemplate compile(@NotNull String message) {
+        return new MessageTemplate(PlaceholderText.split(McTools.minecraftColorCodes(message)));
+    }
+
+    /**
+     * Gets the translated text of this template, with its placeholders left as written.
+     *
+     * @return The translated text.
+     */
+    public @NotNull String getText() {
+        return text.getText();
+    }
+
+    /**
+     * Gets the placeholder names of this template.
+     *
+     * @return The names, in order of appearance, without braces.
+     */
+    public @NotNull List<String> getPlaceholders() {
+        return text.getPlaceholders();
+    }
+
+    /**
+     * Checks if this template has placeholders.
+     *
+     * @return true if the template contains at least one placeholder.
+     */
+    public boolean hasPlaceholders() {
+        return text.hasPlaceholders();
+    }
+
+    /**
+     * Renders this template.
+     *
+     * @param values The placeholder values, by name.
+     * @return The rendered message.
+     */
+    public @NotNull String render(@NotNull Map<String, ?> values) {
+        return text.render(values);
+    }
+
+    /**
+     * Renders this template.
+     *
+     * @param keyValues The placeholder names and values, alternated: {@code "player", name, "count", 3}.
+     * @return The rendered message.
+     */
+    public @NotNull String render(@Nullable Object @NotNull ... keyValues) {
+        return text.render(keyValues);
+    }
+
+    /**
+     * Renders this template at the end of a builder.
+     *
+     * @param out    The builder to append to.
+     * @param values The placeholder values, by name.
+     * @return The builder.
+     */
+    public @NotNull StringBuilder appendTo(@NotNull StringBuilder out, @NotNull Map<String, ?> values) {
+        return text.appendTo(out, values);
+    }
+
+    /**
+     * Renders this template at the end of a builder.
+     *
+     * @param out       The builder to append to.
+     * @param keyValues The placeholder names and values, alternated: {@code "player", name, "count", 3}.
+     * @return The builder.
+     */
+    public @NotNull StringBuilder appendTo(@NotNull StringBuilder out, @Nullable Object @NotNull ... keyValues) {
+        return text.appendTo(out, keyValues);
+    }
+
+    @Override
+    public String toString() {
+        return text.getText();
+    }
+}
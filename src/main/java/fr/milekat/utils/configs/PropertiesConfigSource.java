@@ -0,0 +1,79 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Configuration layer read from flat key/value pairs, such as environment variables or system properties.
+ * <p>Values {@code true} and {@code false} are read as booleans, other values as strings.
+ * The pairs are only read when the configuration is loaded or reloaded, so their modification time never changes.</p>
+ */
+final class PropertiesConfigSource implements ConfigSource {
+    private final String prefix;
+    private final char separator;
+    private final boolean relaxed;
+    private final Supplier<? extends Map<?, ?>> properties;
+
+    PropertiesConfigSource(@NotNull String prefix, char separator, boolean relaxed,
+                           @NotNull Supplier<? extends Map<?, ?>> properties) {
+        this.prefix = prefix;
+        this.separator = separator;
+        this.relaxed = relaxed;
+        this.properties = properties;
+    }
+
+    @Override
+    public @NotNull Map<?, ?> load() {
+        Map<String, Object> tree = new LinkedHashMap<>();
+        properties.get().forEach((name, value) -> {
+            String key = String.valueOf(name);
+            if (value == null || !key.startsWith(prefix) || key.length() == prefix.length()) return;
+            put(tree, key.substring(prefix.length()), typed(String.valueOf(value)));
+        });
+        return tree;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void put(@NotNull Map<String, Object> tree, @NotNull String path, @NotNull Object value) {
+        Map<String, Object> section = tree;
+        int start = 0;
+        int end;
+        while ((end = path.indexOf(separator, start)) >= 0) {
+            Object child = section.computeIfAbsent(segment(path, start, end), ignored -> new LinkedHashMap<>());
+            if (!(child instanceof Map)) return;
+            section = (Map<String, Object>) child;
+            start = end + 1;
+        }
+        section.putIfAbsent(segment(path, start, path.length()), value);
+    }
+
+    private @NotNull String segment(@NotNull String path, int start, int end) {
+        String segment = path.substring(start, end);
+        return relaxed ? segment.toLowerCase(Locale.ROOT) : segment;
+    }
+
+    private static @NotNull Object typed(@NotNull String value) {
+        if (value.equalsIgnoreCase("true")) return Boolean.TRUE;
+        if (value.equalsIgnoreCase("false")) return Boolean.FALSE;
+        return value;
+    }
+
+    @Override
+    public long lastModified() {
+        return 0L;
+    }
+
+    @Override
+    public boolean isRelaxed() {
+        return relaxed;
+    }
+
+    @Override
+    public String toString() {
+        return "properties:" + prefix;
+    }
+}
@@ -0,0 +1,84 @@
+package fr.milekat.utils.configs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Configuration layer read from a YAML file, stamped with the modification time and size of the file.
+ */
+final class YamlConfigSource implements ConfigSource {
+    private final File file;
+    private final boolean binaryCache;
+
+    YamlConfigSource(@NotNull File file, boolean binaryCache) {
+        this.file = file;
+        this.binaryCache = binaryCache;
+    }
+
+    /**
+     * Reads the file.
+     *
+     * @throws IOException If the file is missing or cannot be read, is not valid YAML,
+     *                     or its document is not a mapping (e.g. an empty or truncated file).
+     */
+    @Override
+    public @NotNull Map<?, ?> load() throws IOException {
+        if (!binaryCache) {
+            try (InputStream input = Files.newInputStream(file.toPath())) {
+                return parse(input);
+            }
+        }
+        byte[] content = Files.readAllBytes(file.toPath());
+        byte[] digest = ConfigBinaryCache.digest(content);
+        Path cacheFile = ConfigBinaryCache.cacheFile(file);
+        Map<String, Object> document = ConfigBinaryCache.read(cacheFile, digest);
+        if (document != null) return document;
+        Map<?, ?> parsed = parse(new ByteArrayInputStream(content));
+        ConfigBinaryCache.write(cacheFile, digest, ConfigSnapshot.freezeMap(parsed));
+        return parsed;
+    }
+
+    private @NotNull Map<?, ?> parse(@NotNull InputStream input) throws IOException {
+        Object document;
+        try {
+            document = new Yaml().load(input);
+        } catch (YAMLException exception) {
+            throw new IOException("Invalid YAML in " + file, exception);
+        }
+        if (document instanceof Map<?, ?> map) return map;
+        throw new IOException("YAML document is not a mapping in " + file);
+    }
+
+    /**
+     * Gets the modification time of the file, using {@link File} so that nothing is allocated.
+     */
+    @Override
+    public long lastModified() {
+        return file.lastModified();
+    }
+
+    @Override
+    public long length() {
+        return file.length();
+    }
+
+    @Override
+    public @Nullable File getFile() {
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return "yaml:" + file;
+    }
+}
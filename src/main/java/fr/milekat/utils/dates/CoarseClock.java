@@ -0,0 +1,84 @@
+package fr.milekat.utils.dates;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock reading the current time from a volatile field, refreshed by a daemon ticker thread.
+ *
+ * <p>Reading the time is a single volatile read, which returns the same value to every caller during a tick.
+ * That lets the "now" caches of {@link NowFormatCache} hit on every call made during the same tick.
+ * The value lags the real time by up to one tick.
+ *
+ * <p>The clock is opt-in: {@link fr.milekat.utils.DateMileKat} reads {@link System#currentTimeMillis()} unless
+ * given a clock with {@code DateMileKat.useClock(clock::millis)}. Whoever creates a clock owns its thread,
+ * and must close it (e.g. when its plugin is disabled), after {@code DateMileKat.useClock(null)}.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class CoarseClock implements AutoCloseable {
+    /** Default refresh period of the ticker (in milliseconds) */
+    public static final long DEFAULT_TICK_MILLIS = 10L;
+
+    private final long tickNanos;
+    private final Thread thread;
+    private volatile long millis;
+    private volatile boolean running = true;
+
+    /**
+     * Starts a clock and its ticker thread, ticking every {@link #DEFAULT_TICK_MILLIS} ms.
+     */
+    public CoarseClock() {
+        this(DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * Starts a clock and its ticker thread.
+     *
+     * @param tickMillis Refresh period of the clock (in milliseconds).
+     */
+    public CoarseClock(long tickMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.millis = System.currentTimeMillis();
+        this.thread = new Thread(this::run, "CoarseClock-" + tickMillis + "ms");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(this, tickNanos);
+            millis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Gets the time of the last tick.
+     *
+     * @return The milliseconds since the epoch, as of the last tick.
+     */
+    public long millis() {
+        return millis;
+    }
+
+    /**
+     * Checks if the ticker of this clock still runs.
+     *
+     * @return true until the clock is closed.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops the ticker thread, the clock then keeps returning the time of its last tick.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+}
@@ -0,0 +1,91 @@
+package fr.milekat.utils.dates;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache of immutable {@link DateTimeFormatter}s, by pattern, zone and locale.
+ *
+ * <p>Building a formatter parses its pattern, which costs far more than formatting a date with it.
+ * This cache lets each player have their own zone and language for the price of a hash lookup.
+ * It is cleared once it holds {@link #getMaxSize()} formatters, which only happens if patterns are built dynamically.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class DateFormatterCache {
+    /** Default maximum number of cached formatters */
+    public static final int DEFAULT_MAX_SIZE = 512;
+
+    private final int maxSize;
+    private final ConcurrentMap<Key, DateTimeFormatter> formatters = new ConcurrentHashMap<>();
+
+    private record Key(@NotNull String pattern, @NotNull ZoneId zone, @NotNull Locale locale) {}
+
+    /**
+     * Creates a cache holding up to {@link #DEFAULT_MAX_SIZE} formatters.
+     */
+    public DateFormatterCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize The maximum number of cached formatters.
+     */
+    public DateFormatterCache(int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("Size must be positive: " + maxSize);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the formatter of a pattern, in a zone and a locale, building it on first use.
+     *
+     * @param pattern The pattern, see {@link DateTimeFormatter#ofPattern(String, Locale)}.
+     * @param zone    The zone dates are formatted in.
+     * @param locale  The locale of the month and day names.
+     * @return The formatter.
+     * @throws IllegalArgumentException If the pattern is not valid.
+     */
+    public @NotNull DateTimeFormatter get(@NotNull String pattern, @NotNull ZoneId zone, @NotNull Locale locale) {
+        Key key = new Key(pattern, zone, locale);
+        DateTimeFormatter formatter = formatters.get(key);
+        if (formatter != null) return formatter;
+        formatter = DateTimeFormatter.ofPattern(pattern, locale).withZone(zone);
+        if (formatters.size() >= maxSize) formatters.clear();
+        DateTimeFormatter previous = formatters.putIfAbsent(key, formatter);
+        return previous != null ? previous : formatter;
+    }
+
+    /**
+     * Gets the number of cached formatters.
+     *
+     * @return The number of formatters.
+     */
+    public int size() {
+        return formatters.size();
+    }
+
+    /**
+     * Gets the maximum number of cached formatters.
+     *
+     * @return The maximum size.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Removes every cached formatter.
+     */
+    public void clear() {
+        formatters.clear();
+    }
+}
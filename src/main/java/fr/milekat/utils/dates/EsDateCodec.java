@@ -0,0 +1,281 @@
+package fr.milekat.utils.dates;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.ParseException;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Codec of the Elasticsearch date layout {@code yyyy-MM-dd'T'HH:mm:ss.SSSZ} (e.g. {@code 2024-03-15T18:04:05.123+0100}).
+ *
+ * <p>The canonical 28 characters layout is parsed straight into epoch milliseconds and formatted from them,
+ * with plain char arithmetic and no intermediate object. The offset of the zone is cached with the window
+ * of time it is valid for (until the next zone transition), so it is only looked up again after a transition.
+ *
+ * <p>Other inputs (ISO-8601 forms such as {@code Z} or {@code +01:00} offsets, other fraction lengths...)
+ * are parsed by a {@link DateTimeFormatter}, and dates outside years 0001-9999 are formatted by one.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class EsDateCodec {
+    /** Length of a canonical date, such as {@code 2024-03-15T18:04:05.123+0100} */
+    public static final int LENGTH = 28;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MIN_MILLIS = -62_135_596_800_000L + 18 * 3_600_000L;   //  0001-01-01 at -18:00
+    private static final long MAX_MILLIS = 253_402_300_799_999L - 18 * 3_600_000L;   //  9999-12-31 at +18:00
+    /** ISO-8601 date-time with any fraction length, and an offset such as {@code Z}, {@code +01:00} or {@code +0100} */
+    private static final DateTimeFormatter LENIENT = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+            .optionalStart().appendOffset("+HH:MM:ss", "Z").optionalEnd()
+            .optionalStart().appendOffset("+HHMM", "Z").optionalEnd()
+            .toFormatter()
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LENGTH]);
+
+    private final ZoneRules rules;
+    private final DateTimeFormatter formatter;
+    private volatile OffsetWindow window = new OffsetWindow(Long.MAX_VALUE, Long.MIN_VALUE, 0);
+
+    /**
+     * Offset of the zone, valid from {@code start} (inclusive) to {@code end} (exclusive), in epoch milliseconds.
+     */
+    private record OffsetWindow(long start, long end, int offsetSeconds) {}
+
+    /**
+     * Creates a codec formatting dates in a zone.
+     *
+     * @param zone The zone dates are formatted in, parsing uses the offset of the input.
+     */
+    public EsDateCodec(@NotNull ZoneId zone) {
+        this.rules = zone.getRules();
+        //  Like SimpleDateFormat, years after 9999 are printed without a leading '+'
+        this.formatter = new DateTimeFormatterBuilder()
+                .appendValue(ChronoField.YEAR_OF_ERA, 4, 10, SignStyle.NORMAL)
+                .appendPattern("-MM-dd'T'HH:mm:ss.SSSZ")
+                .toFormatter()
+                .withZone(zone);
+    }
+
+    /**
+     * Parses a date.
+     *
+     * @param text The date to parse.
+     * @return The milliseconds since the epoch.
+     * @throws ParseException If the text is not a valid date.
+     */
+    public long parse(@NotNull CharSequence text) throws ParseException {
+        long millis = parseCanonical(text, null, 0, text.length());
+        return millis != Long.MIN_VALUE ? millis : parseFallback(text.toString());
+    }
+
+    /**
+     * Parses a date from a range of a char array, such as the text buffer of a JSON parser.
+     *
+     * @param chars  The buffer holding the date.
+     * @param offset The index of the first char of the date.
+     * @param length The length of the date.
+     * @return The milliseconds since the epoch.
+     * @throws ParseException If the text is not a valid date.
+     */
+    public long parse(char @NotNull [] chars, int offset, int length) throws ParseException {
+        long millis = parseCanonical(null, chars, offset, length);
+        return millis != Long.MIN_VALUE ? millis : parseFallback(new String(chars, offset, length));
+    }
+
+    /**
+     * Parses the canonical layout.
+     *
+     * @return The milliseconds since the epoch, or {@link Long#MIN_VALUE} if the text is not canonical or not valid.
+     */
+    private static long parseCanonical(@Nullable CharSequence text, char @Nullable [] chars, int offset, int length) {
+        if (length != LENGTH) return Long.MIN_VALUE;
+        if (charAt(text, chars, offset + 4) != '-' || charAt(text, chars, offset + 7) != '-'
+                || charAt(text, chars, offset + 10) != 'T' || charAt(text, chars, offset + 13) != ':'
+                || charAt(text, chars, offset + 16) != ':' || charAt(text, chars, offset + 19) != '.') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(text, chars, offset, 4);
+        int month = digits(text, chars, offset + 5, 2);
+        int day = digits(text, chars, offset + 8, 2);
+        int hour = digits(text, chars, offset + 11, 2);
+        int minute = digits(text, chars, offset + 14, 2);
+        int second = digits(text, chars, offset + 17, 2);
+        int millis = digits(text, chars, offset + 20, 3);
+        char sign = charAt(text, chars, offset + 23);
+        int offsetHours = digits(text, chars, offset + 24, 2);
+        int offsetMinutes = digits(text, chars, offset + 26, 2);
+        if ((year | month | day | hour | minute | second | millis | offsetHours | offsetMinutes) < 0
+                || (sign != '+' && sign != '-')) {
+            return Long.MIN_VALUE;
+        }
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59 || offsetHours > 18 || offsetMinutes > 59) {
+            return Long.MIN_VALUE;
+        }
+        long offsetMillis = (offsetHours * 3600L + offsetMinutes * 60L) * 1000L;
+        long local = epochDay(year, month, day) * MILLIS_PER_DAY
+                + ((hour * 60L + minute) * 60L + second) * 1000L + millis;
+        return sign == '+' ? local - offsetMillis : local + offsetMillis;
+    }
+
+    private static char charAt(@Nullable CharSequence text, char @Nullable [] chars, int index) {
+        return chars != null ? chars[index] : text.charAt(index);
+    }
+
+    /**
+     * Reads a fixed count of decimal digits.
+     *
+     * @return The value, or -1 if a char is not a digit.
+     */
+    private static int digits(@Nullable CharSequence text, char @Nullable [] chars, int index, int count) {
+        int value = 0;
+        for (int i = index; i < index + count; i++) {
+            int digit = charAt(text, chars, i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static long parseFallback(@NotNull String text) throws ParseException {
+        try {
+            return OffsetDateTime.parse(text, LENIENT).toInstant().toEpochMilli();
+        } catch (DateTimeParseException exception) {
+            ParseException parseException = new ParseException("Unparseable date: \"" + text + "\"",
+                    exception.getErrorIndex());
+            parseException.initCause(exception);
+            throw parseException;
+        }
+    }
+
+    /**
+     * Formats a date.
+     *
+     * @param epochMillis The milliseconds since the epoch.
+     * @return The formatted date.
+     */
+    public @NotNull String format(long epochMillis) {
+        char[] chars = BUFFER.get();
+        int length = format(epochMillis, chars, 0);
+        return length == LENGTH ? new String(chars, 0, LENGTH) : formatter.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    /**
+     * Formats a date at the end of a builder.
+     *
+     * @param builder     The builder to append to.
+     * @param epochMillis The milliseconds since the epoch.
+     * @return The builder.
+     */
+    public @NotNull StringBuilder appendTo(@NotNull StringBuilder builder, long epochMillis) {
+        char[] chars = BUFFER.get();
+        int length = format(epochMillis, chars, 0);
+        if (length == LENGTH) return builder.append(chars, 0, LENGTH);
+        return builder.append(formatter.format(Instant.ofEpochMilli(epochMillis)));
+    }
+
+    /**
+     * Formats a date into a char array, which must have room for {@link #LENGTH} chars.
+     *
+     * @param epochMillis The milliseconds since the epoch.
+     * @param chars       The destination array.
+     * @param offset      The index of the first char to write.
+     * @return The number of chars written: {@link #LENGTH}, or 0 if the date has no canonical form
+     * (outside years 0001-9999 or in a zone offset with seconds), see {@link #format(long)}.
+     */
+    public int format(long epochMillis, char @NotNull [] chars, int offset) {
+        if (epochMillis < MIN_MILLIS || epochMillis > MAX_MILLIS) return 0;
+        int offsetSeconds = offsetSeconds(epochMillis);
+        if (offsetSeconds % 60 != 0) return 0;
+        long local = epochMillis + offsetSeconds * 1000L;
+        long epochDay = Math.floorDiv(local, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(local, MILLIS_PER_DAY);
+        //  Civil date from the epoch day (Howard Hinnant's algorithm)
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        setDigits(chars, offset, year, 4);
+        chars[offset + 4] = '-';
+        setDigits(chars, offset + 5, month, 2);
+        chars[offset + 7] = '-';
+        setDigits(chars, offset + 8, day, 2);
+        chars[offset + 10] = 'T';
+        setDigits(chars, offset + 11, millisOfDay / 3_600_000, 2);
+        chars[offset + 13] = ':';
+        setDigits(chars, offset + 14, millisOfDay / 60_000 % 60, 2);
+        chars[offset + 16] = ':';
+        setDigits(chars, offset + 17, millisOfDay / 1000 % 60, 2);
+        chars[offset + 19] = '.';
+        setDigits(chars, offset + 20, millisOfDay % 1000, 3);
+        int absOffset = Math.abs(offsetSeconds);
+        chars[offset + 23] = offsetSeconds < 0 ? '-' : '+';
+        setDigits(chars, offset + 24, absOffset / 3600, 2);
+        setDigits(chars, offset + 26, absOffset / 60 % 60, 2);
+        return LENGTH;
+    }
+
+    private static void setDigits(char @NotNull [] chars, int index, int value, int count) {
+        for (int i = index + count - 1; i >= index; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Gets the offset of the zone at an instant, from the cached window when it covers the instant.
+     */
+    private int offsetSeconds(long epochMillis) {
+        OffsetWindow current = window;
+        if (epochMillis >= current.start && epochMillis < current.end) return current.offsetSeconds;
+        Instant instant = Instant.ofEpochMilli(epochMillis);
+        int offsetSeconds = rules.getOffset(instant).getTotalSeconds();
+        if (rules.isFixedOffset()) {
+            window = new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, offsetSeconds);
+            return offsetSeconds;
+        }
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        long start = previous != null ? previous.getInstant().toEpochMilli() : Long.MIN_VALUE;
+        long end = next != null ? next.getInstant().toEpochMilli() : Long.MAX_VALUE;
+        window = new OffsetWindow(start, end, offsetSeconds);
+        return offsetSeconds;
+    }
+
+    /**
+     * Counts the days from 1970-01-01 to a date of the proleptic Gregorian calendar.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
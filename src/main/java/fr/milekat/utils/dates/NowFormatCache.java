@@ -0,0 +1,120 @@
+package fr.milekat.utils.dates;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formatter caching its last result, meant for timestamps that move forward such as "now".
+ *
+ * <p>Formatting the same millisecond again returns the cached string without allocating anything.
+ * Within the same second, the string is rebuilt from the cached one by only patching its 3 millisecond digits,
+ * and formats without milliseconds return the cached string as is. A full format only happens once per second.
+ *
+ * <p>The millisecond digits are located by formatting two instants of the same second and comparing them,
+ * so any pattern works: when the milliseconds cannot be patched (e.g. {@code S} or {@code SSSSSS}),
+ * a new millisecond is fully formatted.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class NowFormatCache {
+    /** The text does not depend on the milliseconds */
+    private static final int NO_MILLIS = -1;
+    /** The milliseconds are formatted in a way that cannot be patched */
+    private static final int UNPATCHABLE = -2;
+
+    private final DateTimeFormatter formatter;
+    private volatile Entry last = new Entry(Long.MIN_VALUE, Long.MIN_VALUE, "", UNPATCHABLE);
+
+    /**
+     * Last formatted timestamp.
+     *
+     * @param millis      The formatted epoch milliseconds.
+     * @param second      The epoch second of {@code millis}.
+     * @param text        The formatted text.
+     * @param millisIndex The index of the 3 millisecond digits in {@code text}, or {@link #NO_MILLIS} / {@link #UNPATCHABLE}.
+     */
+    private record Entry(long millis, long second, @NotNull String text, int millisIndex) {}
+
+    /**
+     * Creates a cache for a formatter.
+     *
+     * @param formatter The formatter, the system default zone is used if it has no zone.
+     */
+    public NowFormatCache(@NotNull DateTimeFormatter formatter) {
+        this.formatter = formatter.getZone() != null ? formatter : formatter.withZone(ZoneId.systemDefault());
+    }
+
+    /**
+     * Gets the formatter of this cache.
+     *
+     * @return The formatter, with its zone.
+     */
+    public @NotNull DateTimeFormatter getFormatter() {
+        return formatter;
+    }
+
+    /**
+     * Formats a timestamp, reusing the last result when possible.
+     *
+     * @param epochMillis The milliseconds since the epoch.
+     * @return The formatted text.
+     */
+    public @NotNull String format(long epochMillis) {
+        Entry entry = last;
+        if (entry.millis == epochMillis) return entry.text;
+        long second = Math.floorDiv(epochMillis, 1000L);
+        if (entry.second == second) {
+            if (entry.millisIndex == NO_MILLIS) return entry.text;
+            if (entry.millisIndex >= 0) {
+                String text = patch(entry.text, entry.millisIndex, (int) Math.floorMod(epochMillis, 1000L));
+                last = new Entry(epochMillis, second, text, entry.millisIndex);
+                return text;
+            }
+        }
+        Entry fresh = formatSecond(epochMillis, second);
+        last = fresh;
+        return fresh.text;
+    }
+
+    /**
+     * Fully formats a timestamp and locates its millisecond digits, comparing it to another instant of its second.
+     */
+    private @NotNull Entry formatSecond(long epochMillis, long second) {
+        String text = formatter.format(Instant.ofEpochMilli(epochMillis));
+        int millis = (int) Math.floorMod(epochMillis, 1000L);
+        String other = formatter.format(Instant.ofEpochMilli(second * 1000L + (millis + 500) % 1000));
+        return new Entry(epochMillis, second, text, locateMillis(text, other, millis));
+    }
+
+    private static int locateMillis(@NotNull String text, @NotNull String other, int millis) {
+        if (text.equals(other)) return NO_MILLIS;
+        if (text.length() != other.length()) return UNPATCHABLE;
+        int first = 0;
+        while (text.charAt(first) == other.charAt(first)) first++;
+        int lastDiff = text.length() - 1;
+        while (text.charAt(lastDiff) == other.charAt(lastDiff)) lastDiff--;
+        //  The hundreds digit always differs (+500 ms), the other digits may not
+        int index = first;
+        if (index + 3 > text.length() || lastDiff >= index + 3) return UNPATCHABLE;
+        if (text.charAt(index) != (char) ('0' + millis / 100)
+                || text.charAt(index + 1) != (char) ('0' + millis / 10 % 10)
+                || text.charAt(index + 2) != (char) ('0' + millis % 10)) {
+            return UNPATCHABLE;
+        }
+        if (index + 3 < text.length() && Character.isDigit(text.charAt(index + 3))) return UNPATCHABLE;
+        return index;
+    }
+
+    private static @NotNull String patch(@NotNull String text, int index, int millis) {
+        char[] chars = text.toCharArray();
+        chars[index] = (char) ('0' + millis / 100);
+        chars[index + 1] = (char) ('0' + millis / 10 % 10);
+        chars[index + 2] = (char) ('0' + millis % 10);
+        return new String(chars);
+    }
+}
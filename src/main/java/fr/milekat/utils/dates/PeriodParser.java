@@ -0,0 +1,132 @@
+package fr.milekat.utils.dates;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single pass parser of periods such as {@code 1d12h}, {@code 2w} or {@code 1h 30m}, into milliseconds.
+ *
+ * <p>A period is a sequence of numbers, each followed by its unit (case-insensitive):
+ * <ul>
+ *     <li>{@code ms}: milliseconds</li>
+ *     <li>{@code s}: seconds</li>
+ *     <li>{@code m}: minutes</li>
+ *     <li>{@code h}: hours</li>
+ *     <li>{@code d} or {@code j}: days</li>
+ *     <li>{@code w}: weeks</li>
+ *     <li>{@code mo}: months of 30 days</li>
+ * </ul>
+ * Whitespace between the terms is ignored. Results of {@link #parse(String)} and {@link #parseLenient(String)}
+ * are kept in small caches, since the same periods (from commands or configurations) are usually parsed over and over.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class PeriodParser {
+    /** Result of an invalid period */
+    public static final long INVALID = -1L;
+
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    /** Maximum number of cached periods, a cache is cleared once it is full */
+    private static final int CACHE_SIZE = 256;
+    private static final ConcurrentMap<String, Long> CACHE = new ConcurrentHashMap<>();
+    /** Lenient results of the periods that are not valid, valid ones are found in {@link #CACHE} */
+    private static final ConcurrentMap<String, Long> LENIENT_CACHE = new ConcurrentHashMap<>();
+
+    private PeriodParser() {}
+
+    /**
+     * Parses a period.
+     *
+     * @param period The period to parse.
+     * @return The duration in milliseconds, or {@link #INVALID} if the period is null, empty,
+     * holds anything else than terms and whitespace, or overflows.
+     */
+    public static long parse(@Nullable String period) {
+        if (period == null) return INVALID;
+        return cached(CACHE, period, true);
+    }
+
+    /**
+     * Parses a period the way {@code DateMileKat.parsePeriod} always did: chars that are not part of a term are
+     * skipped, so an empty period, or a period without any term, lasts 0 ms.
+     *
+     * @param period The period to parse.
+     * @return The duration in milliseconds, or {@link #INVALID} if the period is null or overflows.
+     */
+    public static long parseLenient(@Nullable String period) {
+        if (period == null) return INVALID;
+        long millis = parse(period);
+        return millis != INVALID ? millis : cached(LENIENT_CACHE, period, false);
+    }
+
+    private static long cached(ConcurrentMap<String, Long> cache, String period, boolean strict) {
+        Long cached = cache.get(period);
+        if (cached != null) return cached;
+        long millis = scan(period, strict);
+        if (cache.size() >= CACHE_SIZE) cache.clear();
+        cache.put(period, millis);
+        return millis;
+    }
+
+    private static long scan(String period, boolean strict) {
+        int length = period.length();
+        long total = 0;
+        boolean empty = true;
+        int i = 0;
+        while (i < length) {
+            char c = period.charAt(i);
+            if (c < '0' || c > '9') {
+                if (strict && !Character.isWhitespace(c)) return INVALID;
+                i++;
+                continue;
+            }
+            long value = 0;
+            while (i < length && (c = period.charAt(i)) >= '0' && c <= '9') {
+                if (value > (Long.MAX_VALUE - 9) / 10) return INVALID;
+                value = value * 10 + (c - '0');
+                i++;
+            }
+            long unit = 0;
+            if (i < length) {
+                char next = i + 1 < length ? Character.toLowerCase(period.charAt(i + 1)) : 0;
+                switch (Character.toLowerCase(period.charAt(i))) {
+                    case 's' -> unit = SECOND;
+                    case 'h' -> unit = HOUR;
+                    case 'd', 'j' -> unit = DAY;
+                    case 'w' -> unit = 7 * DAY;
+                    case 'm' -> {
+                        if (next == 's') {
+                            unit = 1;
+                            i++;
+                        } else if (next == 'o') {
+                            unit = 30 * DAY;
+                            i++;
+                        } else {
+                            unit = MINUTE;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+            if (unit == 0) {
+                //  A number without unit is not a term
+                if (strict) return INVALID;
+                continue;
+            }
+            i++;
+            if (value > (Long.MAX_VALUE - total) / unit) return INVALID;
+            total += value * unit;
+            empty = false;
+        }
+        return strict && empty ? INVALID : total;
+    }
+}
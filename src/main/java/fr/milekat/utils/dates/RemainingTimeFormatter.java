@@ -0,0 +1,139 @@
+package fr.milekat.utils.dates;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Formats remaining times, such as {@code 1jours 2h 3m 4s}, with configurable unit labels.
+ *
+ * <p>Units equal to zero are skipped, and milliseconds are never displayed. Formatters are immutable,
+ * and {@link #of(String, String, String, String, String)} returns the same instance for the same labels.
+ * Text is appended straight into a {@link StringBuilder}, so a caller reusing its builder does not allocate:
+ * <pre>{@code
+ * StringBuilder line = new StringBuilder();
+ * long now = System.currentTimeMillis();
+ * for (Player player : players) {
+ *     line.setLength(0);
+ *     formatter.appendTo(line.append("Ends in "), deadline - now);
+ *     ...
+ * }
+ * }</pre>
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class RemainingTimeFormatter {
+    /** Maximum number of cached label sets, the cache is cleared once it is full */
+    private static final int CACHE_SIZE = 64;
+    private static final ConcurrentMap<List<String>, RemainingTimeFormatter> CACHE = new ConcurrentHashMap<>();
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    /** Labels used by {@code DateMileKat.remainingToString} */
+    public static final RemainingTimeFormatter FRENCH = of("jours", "h", "m", "s", " ");
+    /** Short english labels */
+    public static final RemainingTimeFormatter ENGLISH = of("d", "h", "m", "s", " ");
+
+    private final String days;
+    private final String hours;
+    private final String minutes;
+    private final String seconds;
+    private final String separator;
+
+    private RemainingTimeFormatter(@NotNull String days, @NotNull String hours, @NotNull String minutes,
+                                   @NotNull String seconds, @NotNull String separator) {
+        this.days = days;
+        this.hours = hours;
+        this.minutes = minutes;
+        this.seconds = seconds;
+        this.separator = separator;
+    }
+
+    /**
+     * Gets the formatter using some labels.
+     *
+     * @param days      The label appended to the days.
+     * @param hours     The label appended to the hours.
+     * @param minutes   The label appended to the minutes.
+     * @param seconds   The label appended to the seconds.
+     * @param separator The text between two units.
+     * @return The formatter, cached.
+     */
+    public static @NotNull RemainingTimeFormatter of(@NotNull String days, @NotNull String hours,
+                                                     @NotNull String minutes, @NotNull String seconds,
+                                                     @NotNull String separator) {
+        List<String> key = List.of(days, hours, minutes, seconds, separator);
+        RemainingTimeFormatter formatter = CACHE.get(key);
+        if (formatter != null) return formatter;
+        if (CACHE.size() >= CACHE_SIZE) CACHE.clear();
+        return CACHE.computeIfAbsent(key, ignored -> new RemainingTimeFormatter(days, hours, minutes, seconds, separator));
+    }
+
+    /**
+     * Appends a remaining time to a builder.
+     *
+     * @param builder         The builder to append to.
+     * @param remainingMillis The remaining time in milliseconds.
+     * @return The builder.
+     */
+    @Contract("_, _ -> param1")
+    public @NotNull StringBuilder appendTo(@NotNull StringBuilder builder, long remainingMillis) {
+        int start = builder.length();
+        append(builder, start, remainingMillis / 86_400_000L, days);
+        append(builder, start, remainingMillis / 3_600_000L % 24, hours);
+        append(builder, start, remainingMillis / 60_000L % 60, minutes);
+        append(builder, start, remainingMillis / 1000L % 60, seconds);
+        return builder;
+    }
+
+    /**
+     * Appends a remaining time to a builder.
+     *
+     * @param builder   The builder to append to.
+     * @param breakdown The remaining time.
+     * @return The builder.
+     */
+    @Contract("_, _ -> param1")
+    public @NotNull StringBuilder appendTo(@NotNull StringBuilder builder, @NotNull TimeBreakdown breakdown) {
+        return appendTo(builder, breakdown.totalMillis());
+    }
+
+    private void append(@NotNull StringBuilder builder, int start, long value, @NotNull String label) {
+        if (value == 0) return;
+        if (builder.length() > start) builder.append(separator);
+        builder.append(value).append(label);
+    }
+
+    /**
+     * Formats a remaining time.
+     *
+     * @param remainingMillis The remaining time in milliseconds.
+     * @return The formatted time, empty if it is less than a second.
+     */
+    public @NotNull String format(long remainingMillis) {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        return appendTo(builder, remainingMillis).toString();
+    }
+
+    /**
+     * Formats the time remaining until many deadlines, against the same "now".
+     *
+     * @param nowMillis The current time, in milliseconds since the epoch.
+     * @param deadlines The deadlines, in milliseconds since the epoch.
+     * @return The formatted times, in the order of the deadlines.
+     */
+    public @NotNull String @NotNull [] formatAll(long nowMillis, long @NotNull ... deadlines) {
+        StringBuilder builder = BUILDER.get();
+        String[] formatted = new String[deadlines.length];
+        for (int i = 0; i < deadlines.length; i++) {
+            builder.setLength(0);
+            formatted[i] = appendTo(builder, deadlines[i] - nowMillis).toString();
+        }
+        return formatted;
+    }
+}
@@ -0,0 +1,56 @@
+package fr.milekat.utils.dates;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Duration split into days, hours, minutes, seconds and milliseconds.
+ * <p>Each unit is truncated toward zero, so every field of a negative duration is negative or zero.</p>
+ *
+ * @param totalMillis The whole duration in milliseconds.
+ * @param days        The days.
+ * @param hours       The hours of the last day (0-23).
+ * @param minutes     The minutes of the last hour (0-59).
+ * @param seconds     The seconds of the last minute (0-59).
+ * @param millis      The milliseconds of the last second (0-999).
+ * @author MileKat
+ * @since 1.10
+ */
+public record TimeBreakdown(long totalMillis, long days, int hours, int minutes, int seconds, int millis) {
+    /**
+     * Splits a duration.
+     *
+     * @param totalMillis The duration in milliseconds.
+     * @return The split duration.
+     */
+    @Contract("_ -> new")
+    public static @NotNull TimeBreakdown of(long totalMillis) {
+        return new TimeBreakdown(totalMillis,
+                totalMillis / 86_400_000L,
+                (int) (totalMillis / 3_600_000L % 24),
+                (int) (totalMillis / 60_000L % 60),
+                (int) (totalMillis / 1000L % 60),
+                (int) (totalMillis % 1000));
+    }
+
+    /**
+     * Splits the duration between two instants.
+     *
+     * @param fromMillis The start, in milliseconds since the epoch.
+     * @param toMillis   The end, in milliseconds since the epoch.
+     * @return The split duration, negative if the end is before the start.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull TimeBreakdown between(long fromMillis, long toMillis) {
+        return of(toMillis - fromMillis);
+    }
+
+    /**
+     * Checks if the duration is over.
+     *
+     * @return true if the duration is zero or negative.
+     */
+    public boolean isOver() {
+        return totalMillis <= 0;
+    }
+}
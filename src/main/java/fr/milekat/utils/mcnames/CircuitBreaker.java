@@ -0,0 +1,116 @@
+package fr.milekat.utils.mcnames;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker stopping requests to an unhealthy service for a while.
+ *
+ * <p>After {@code failureThreshold} failures in a row, the circuit opens: requests are rejected at once,
+ * instead of waiting for timeouts or adding load to a rate-limited service. Once {@code openDuration} has elapsed,
+ * the circuit is half-open: a single trial request is allowed. The circuit closes if it succeeds,
+ * and opens again if it fails.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class CircuitBreaker {
+    /**
+     * State of a circuit.
+     */
+    public enum State {
+        /** Requests are allowed */
+        CLOSED,
+        /** Requests are rejected */
+        OPEN,
+        /** A trial request is allowed */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    /** Guarded by this */
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialSent;
+
+    /**
+     * Creates a closed circuit.
+     *
+     * @param failureThreshold The number of failures in a row opening the circuit.
+     * @param openDuration     How long the circuit stays open before a trial request.
+     */
+    public CircuitBreaker(int failureThreshold, @NotNull Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    /**
+     * Creates a closed circuit reading the time from a clock.
+     *
+     * @param failureThreshold The number of failures in a row opening the circuit.
+     * @param openDuration     How long the circuit stays open before a trial request.
+     * @param nanoClock        The clock, in nanoseconds, such as {@link System#nanoTime()}.
+     */
+    public CircuitBreaker(int failureThreshold, @NotNull Duration openDuration, @NotNull LongSupplier nanoClock) {
+        if (failureThreshold <= 0) throw new IllegalArgumentException("Threshold must be positive: " + failureThreshold);
+        if (openDuration.isNegative()) throw new IllegalArgumentException("Duration must not be negative: " + openDuration);
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Checks if a request may be sent, counting it as the trial request when the circuit is half-open.
+     *
+     * @return true if the request may be sent, false if it must be rejected.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialSent = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialSent) yield false;
+                trialSent = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Records a successful request, closing the circuit.
+     */
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    /**
+     * Records a failed request, opening the circuit after too many failures in a row.
+     */
+    public synchronized void recordFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+        }
+    }
+
+    /**
+     * Gets the state of the circuit.
+     *
+     * @return The state.
+     */
+    public synchronized @NotNull State getState() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) return State.HALF_OPEN;
+        return state;
+    }
+}
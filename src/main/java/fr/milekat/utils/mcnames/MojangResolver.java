@@ -0,0 +1,426 @@
+package fr.milekat.utils.mcnames;
+
+import fr.milekat.utils.mcnames.ProfileCache.Profile;
+import fr.milekat.utils.mcnames.exceptions.MojangResponseException;
+import fr.milekat.utils.mcnames.exceptions.MojangUnavailableException;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves Minecraft profiles with the Mojang API, without blocking the calling thread.
+ *
+ * <p>Requests are sent by a {@link HttpClient} shared by every resolver, which negotiates HTTP/2
+ * and keeps its connections alive between lookups.
+ * Concurrent lookups of the same name (or UUID) share a single request: the first one sends it,
+ * and the others wait for its response.
+ *
+ * <p>Requests are protected by a {@link RateLimiter} and a {@link CircuitBreaker}: lookups over the rate,
+ * or sent while the API keeps failing (HTTP 429, 5xx, timeouts...), fail at once with a
+ * {@link MojangUnavailableException}. Each request also has a timeout.
+ *
+ * <p>The base URL of the API can be changed, to use a proxy or a local stub server in tests.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class MojangResolver {
+    /** Base URL of the Mojang API */
+    public static final String DEFAULT_BASE_URL = "https://api.mojang.com";
+    /** Maximum number of names of a {@link #lookupNames(Collection)} request */
+    public static final int MAX_BULK_SIZE = 10;
+    /** Default timeout to connect to the API */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    /** Default timeout to receive the response of a request, once it is sent */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final class SharedClient {
+        private static final HttpClient CLIENT = newClient(DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    /**
+     * Counters of the requests of a resolver.
+     *
+     * @param requests       The number of requests sent.
+     * @param failures       The number of requests that failed, or got an HTTP 429 or 5xx response.
+     * @param throttled      The number of lookups rejected by the rate limiter.
+     * @param shortCircuited The number of lookups rejected by the open circuit breaker.
+     */
+    public record Stats(long requests, long failures, long throttled, long shortCircuited) {}
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final @Nullable RateLimiter rateLimiter;
+    private final @Nullable CircuitBreaker circuitBreaker;
+    private final ConcurrentMap<String, CompletableFuture<Profile>> nameLookups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Profile>> uuidLookups = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+
+    /**
+     * Creates a resolver using the Mojang API, with the default settings of {@link #builder()}.
+     */
+    public MojangResolver() {
+        this(DEFAULT_BASE_URL);
+    }
+
+    /**
+     * Creates a resolver using an API at another URL, with the default settings of {@link #builder()}.
+     *
+     * @param baseUrl The base URL of the API, such as {@code http://localhost:8080}.
+     */
+    public MojangResolver(@NotNull String baseUrl) {
+        this(builder().baseUrl(baseUrl));
+    }
+
+    /**
+     * Creates a resolver sending its requests with a client, with the default settings of {@link #builder()}.
+     *
+     * @param baseUrl The base URL of the API, such as {@code http://localhost:8080}.
+     * @param client  The HTTP client.
+     */
+    public MojangResolver(@NotNull String baseUrl, @NotNull HttpClient client) {
+        this(builder().baseUrl(baseUrl).client(client));
+    }
+
+    private MojangResolver(@NotNull Builder builder) {
+        String url = builder.baseUrl;
+        this.baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        if (builder.client != null) this.client = builder.client;
+        else if (builder.connectTimeout.equals(DEFAULT_CONNECT_TIMEOUT)) this.client = SharedClient.CLIENT;
+        else this.client = newClient(builder.connectTimeout);
+        this.requestTimeout = builder.requestTimeout;
+        this.rateLimiter = builder.rateLimiter;
+        this.circuitBreaker = builder.circuitBreaker;
+    }
+
+    private static @NotNull HttpClient newClient(@NotNull Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Creates a builder of resolvers, using the Mojang API with the default timeouts, a rate limiter of
+     * 600 requests per 10 minutes, and a circuit breaker opening for 30 seconds after 5 failures in a row.
+     *
+     * @return The new builder.
+     */
+    @Contract(" -> new")
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the base URL of the API.
+     *
+     * @return The base URL, without trailing slash.
+     */
+    public @NotNull String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Gets the circuit breaker of the requests.
+     *
+     * @return The circuit breaker, or null if it is disabled.
+     */
+    public @Nullable CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Gets the counters of the requests.
+     *
+     * @return A snapshot of the counters.
+     */
+    public @NotNull Stats getStats() {
+        return new Stats(requests.sum(), failures.sum(), throttled.sum(), shortCircuited.sum());
+    }
+
+    /**
+     * Looks up the profile of a name.
+     *
+     * @param name The name, in any case.
+     * @return The profile, or null if the name has no profile.
+     * The future fails with an {@link IOException} if the request fails.
+     */
+    public @NotNull CompletableFuture<@Nullable Profile> lookupName(@NotNull String name) {
+        return lookup(nameLookups, ProfileCache.nameKey(name), "/users/profiles/minecraft/" + encode(name),
+                "name", name);
+    }
+
+    /**
+     * Looks up the profile of a UUID.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The profile, or null if the UUID has no profile.
+     * The future fails with an {@link IOException} if the request fails.
+     */
+    public @NotNull CompletableFuture<@Nullable Profile> lookupUuid(@NotNull String uuid) {
+        return lookup(uuidLookups, ProfileCache.uuidKey(uuid), "/user/profile/" + encode(uuid), "uuid", uuid);
+    }
+
+    /**
+     * Looks up the profiles of several names with a single request.
+     * <p>Unlike single lookups, bulk lookups are not shared with concurrent lookups of the same names,
+     * see {@link NameBatcher} for that.</p>
+     *
+     * @param names The names, in any case, at most {@link #MAX_BULK_SIZE}.
+     * @return The found profiles, by lowercase name. Names without profile are missing from the map.
+     * The future fails with an {@link IOException} if the request fails.
+     */
+    public @NotNull CompletableFuture<Map<String, Profile>> lookupNames(@NotNull Collection<String> names) {
+        if (names.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " names per request: " + names.size());
+        }
+        if (names.isEmpty()) return CompletableFuture.completedFuture(new HashMap<>());
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + "/profiles/minecraft"))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(new JSONArray(names).toString(), StandardCharsets.UTF_8));
+        return send(request, "names: " + names)
+                .thenApply(response -> parseBulk(response, names))
+                .handle((profiles, throwable) -> {
+                    if (throwable != null) throw new CompletionException(unwrap(throwable));
+                    return profiles;
+                });
+    }
+
+    /**
+     * Gets the number of requests waiting for their response.
+     *
+     * @return The number of requests.
+     */
+    public int getInFlightCount() {
+        return nameLookups.size() + uuidLookups.size();
+    }
+
+    private @NotNull CompletableFuture<Profile> lookup(@NotNull ConcurrentMap<String, CompletableFuture<Profile>> inFlight,
+                                                       @NotNull String key, @NotNull String path,
+                                                       @NotNull String keyType, @NotNull String value) {
+        CompletableFuture<Profile> created = new CompletableFuture<>();
+        CompletableFuture<Profile> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) return existing.copy();
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Accept", "application/json")
+                    .GET();
+            send(request, keyType + ": " + value)
+                    .thenApply(response -> parse(response, keyType, value))
+                    .whenComplete((profile, throwable) -> {
+                        inFlight.remove(key, created);
+                        if (throwable != null) created.completeExceptionally(unwrap(throwable));
+                        else created.complete(profile);
+                    });
+        } catch (RuntimeException exception) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(new IOException("Invalid Mojang API request for " + keyType + ": " + value,
+                    exception));
+        }
+        return created.copy();
+    }
+
+    /**
+     * Sends a request if the rate limiter and the circuit breaker allow it, and records its outcome.
+     */
+    private @NotNull CompletableFuture<HttpResponse<InputStream>> send(@NotNull HttpRequest.Builder request,
+                                                                       @NotNull String lookup) {
+        if (rateLimiter != null && !rateLimiter.tryAcquire()) {
+            throttled.increment();
+            return CompletableFuture.failedFuture(new MojangUnavailableException(
+                    MojangUnavailableException.Reason.THROTTLED, "Mojang API rate limit reached for " + lookup));
+        }
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            shortCircuited.increment();
+            return CompletableFuture.failedFuture(new MojangUnavailableException(
+                    MojangUnavailableException.Reason.CIRCUIT_OPEN, "Mojang API is unavailable for " + lookup));
+        }
+        requests.increment();
+        return client.sendAsync(request.timeout(requestTimeout).build(),
+                        HttpResponse.BodyHandlers.ofInputStream())
+                .whenComplete((response, throwable) -> {
+                    boolean failed = throwable != null || response.statusCode() == 429 || response.statusCode() >= 500;
+                    if (failed) failures.increment();
+                    if (circuitBreaker == null) return;
+                    if (failed) circuitBreaker.recordFailure();
+                    else circuitBreaker.recordSuccess();
+                });
+    }
+
+    /**
+     * Reads the profile of a response.
+     *
+     * @return The profile, or null if the API found nothing.
+     */
+    private static @Nullable Profile parse(@NotNull HttpResponse<InputStream> response, @NotNull String keyType,
+                                           @NotNull String value) {
+        try (Reader body = new InputStreamReader(response.body(), StandardCharsets.UTF_8)) {
+            int status = response.statusCode();
+            if (status == 204 || status == 404) return null;
+            if (status != 200) {
+                throw new CompletionException(new MojangResponseException(status, "Mojang API returned HTTP " +
+                        status + " for " + keyType + ": " + value));
+            }
+            return ProfileJsonReader.readProfile(body);
+        } catch (IOException exception) {
+            throw new CompletionException(new IOException("Failed to parse Mojang API response for " +
+                    keyType + ": " + value, exception));
+        }
+    }
+
+    /**
+     * Reads the profiles of a bulk response.
+     */
+    private static @NotNull Map<String, Profile> parseBulk(@NotNull HttpResponse<InputStream> response,
+                                                           @NotNull Collection<String> names) {
+        try (Reader body = new InputStreamReader(response.body(), StandardCharsets.UTF_8)) {
+            int status = response.statusCode();
+            if (status != 200) {
+                throw new CompletionException(new MojangResponseException(status, "Mojang API returned HTTP " +
+                        status + " for names: " + names));
+            }
+            Map<String, Profile> profiles = new HashMap<>(names.size() * 2);
+            ProfileJsonReader.readProfiles(body,
+                    profile -> profiles.put(ProfileCache.nameKey(profile.name()), profile));
+            return profiles;
+        } catch (IOException exception) {
+            throw new CompletionException(new IOException("Failed to parse Mojang API response for names: " + names,
+                    exception));
+        }
+    }
+
+    private static @NotNull Throwable unwrap(@NotNull Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) cause = cause.getCause();
+        return cause instanceof IOException ? cause : new IOException(cause);
+    }
+
+    private static @NotNull String encode(@NotNull String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /**
+     * Builder of {@link MojangResolver}.
+     */
+    public static final class Builder {
+        private String baseUrl = DEFAULT_BASE_URL;
+        private HttpClient client;
+        private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+        private RateLimiter rateLimiter = new RateLimiter(600, Duration.ofMinutes(10));
+        private CircuitBreaker circuitBreaker = new CircuitBreaker(5, Duration.ofSeconds(30));
+
+        private Builder() {}
+
+        /**
+         * Sets the base URL of the API.
+         *
+         * @param baseUrl The base URL, such as {@code http://localhost:8080}.
+         * @return This builder.
+         */
+        public @NotNull Builder baseUrl(@NotNull String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        /**
+         * Sets the client sending the requests, instead of the shared client.
+         * <p>The connect timeout of the builder is then ignored, it is set on the client.</p>
+         *
+         * @param client The HTTP client.
+         * @return This builder.
+         */
+        public @NotNull Builder client(@NotNull HttpClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Sets the timeout to connect to the API.
+         *
+         * @param connectTimeout The timeout.
+         * @return This builder.
+         */
+        public @NotNull Builder connectTimeout(@NotNull Duration connectTimeout) {
+            if (connectTimeout.isNegative() || connectTimeout.isZero()) {
+                throw new IllegalArgumentException("Timeout must be positive: " + connectTimeout);
+            }
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the timeout to receive the response of a request, once it is sent.
+         *
+         * @param requestTimeout The timeout.
+         * @return This builder.
+         */
+        public @NotNull Builder requestTimeout(@NotNull Duration requestTimeout) {
+            if (requestTimeout.isNegative() || requestTimeout.isZero()) {
+                throw new IllegalArgumentException("Timeout must be positive: " + requestTimeout);
+            }
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the rate limiter of the requests.
+         *
+         * @param rateLimiter The rate limiter, or null to disable it.
+         * @return This builder.
+         */
+        public @NotNull Builder rateLimiter(@Nullable RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets the circuit breaker of the requests.
+         *
+         * @param circuitBreaker The circuit breaker, or null to disable it.
+         * @return This builder.
+         */
+        public @NotNull Builder circuitBreaker(@Nullable CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Builds the resolver.
+         *
+         * @return The new resolver.
+         */
+        @Contract(" -> new")
+        public @NotNull MojangResolver build() {
+            return new MojangResolver(this);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package fr.milekat.utils.mcnames;
+
+import fr.milekat.utils.mcnames.ProfileCache.Profile;
+import fr.milekat.utils.mcnames.exceptions.MojangResponseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups name lookups made close together into bulk requests to the Mojang API.
+ *
+ * <p>A lookup waits for a short window, during which other lookups can join it.
+ * The batch is then sent as one bulk request, or as soon as it holds {@link MojangResolver#MAX_BULK_SIZE} names.
+ * A batch of a single name is sent as a single lookup. If the API rejects a bulk request
+ * (see {@link MojangResponseException#isRequestRejected()}), each of its names is looked up on its own,
+ * so that one bad name does not fail the whole batch. Any other failure (rate limit, server error, timeout,
+ * open circuit...) fails every name of the batch, rather than sending more requests to an unhealthy API.
+ *
+ * <p>Lookups of a name that is already waiting, or already sent, share its result.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class NameBatcher implements AutoCloseable {
+    /** Default time a lookup waits for other lookups to join its batch */
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(20);
+
+    /**
+     * A name waiting for its batch to be sent.
+     */
+    private record Pending(@NotNull String key, @NotNull String name, @NotNull CompletableFuture<Profile> future) {}
+
+    private final MojangResolver resolver;
+    private final long windowNanos;
+    private final ScheduledThreadPoolExecutor scheduler;
+    /** Lookups of waiting or sent names, by lowercase name */
+    private final ConcurrentMap<String, CompletableFuture<Profile>> lookups = new ConcurrentHashMap<>();
+    /** Names of the next batch, guarded by this */
+    private final Map<String, Pending> batch = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledSend;
+    private boolean closed;
+
+    /**
+     * Creates a batcher with the default window.
+     *
+     * @param resolver The resolver sending the requests.
+     */
+    public NameBatcher(@NotNull MojangResolver resolver) {
+        this(resolver, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Creates a batcher.
+     *
+     * @param resolver The resolver sending the requests.
+     * @param window   The time a lookup waits for other lookups to join its batch.
+     */
+    public NameBatcher(@NotNull MojangResolver resolver, @NotNull Duration window) {
+        if (window.isNegative()) throw new IllegalArgumentException("Window must not be negative: " + window);
+        this.resolver = resolver;
+        this.windowNanos = window.toNanos();
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "NameBatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Gets the resolver sending the requests.
+     *
+     * @return The resolver.
+     */
+    public @NotNull MojangResolver getResolver() {
+        return resolver;
+    }
+
+    /**
+     * Looks up the profile of a name, in the next batch.
+     *
+     * @param name The name, in any case.
+     * @return The profile, or null if the name has no profile.
+     * The future fails with an {@link java.io.IOException} if the request fails.
+     */
+    public @NotNull CompletableFuture<@Nullable Profile> lookup(@NotNull String name) {
+        String key = ProfileCache.nameKey(name);
+        CompletableFuture<Profile> created = new CompletableFuture<>();
+        CompletableFuture<Profile> existing = lookups.putIfAbsent(key, created);
+        if (existing != null) return existing.copy();
+        List<Pending> full = null;
+        synchronized (this) {
+            if (closed) {
+                full = List.of(new Pending(key, name, created));
+            } else {
+                batch.put(key, new Pending(key, name, created));
+                if (batch.size() >= MojangResolver.MAX_BULK_SIZE) {
+                    full = takeBatch();
+                } else if (scheduledSend == null) {
+                    scheduledSend = scheduler.schedule(this::sendBatch, windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+        if (full != null) send(full);
+        return created.copy();
+    }
+
+    /**
+     * Gets the number of names waiting for their batch to be sent.
+     *
+     * @return The number of names.
+     */
+    public synchronized int getPendingCount() {
+        return batch.size();
+    }
+
+    /**
+     * Takes the names of the next batch, guarded by this.
+     */
+    private @NotNull List<Pending> takeBatch() {
+        List<Pending> taken = new ArrayList<>(batch.values());
+        batch.clear();
+        if (scheduledSend != null) {
+            scheduledSend.cancel(false);
+            scheduledSend = null;
+        }
+        return taken;
+    }
+
+    private void sendBatch() {
+        List<Pending> taken;
+        synchronized (this) {
+            taken = takeBatch();
+        }
+        send(taken);
+    }
+
+    private void send(@NotNull List<Pending> taken) {
+        if (taken.isEmpty()) return;
+        if (taken.size() == 1) {
+            sendSingle(taken.get(0));
+            return;
+        }
+        List<String> names = new ArrayList<>(taken.size());
+        for (Pending pending : taken) names.add(pending.name);
+        resolver.lookupNames(names).whenComplete((profiles, throwable) -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ?
+                    throwable.getCause() : throwable;
+            boolean rejected = cause instanceof MojangResponseException response && response.isRequestRejected();
+            for (Pending pending : taken) {
+                if (rejected) sendSingle(pending);
+                else complete(pending, cause == null ? profiles.get(pending.key) : null, cause);
+            }
+        });
+    }
+
+    private void sendSingle(@NotNull Pending pending) {
+        resolver.lookupName(pending.name).whenComplete((profile, throwable) -> complete(pending, profile, throwable));
+    }
+
+    /**
+     * Completes a lookup, after removing it so that later lookups of the name send a new request.
+     */
+    private void complete(@NotNull Pending pending, @Nullable Profile profile, @Nullable Throwable throwable) {
+        lookups.remove(pending.key, pending.future);
+        if (throwable != null) pending.future.completeExceptionally(throwable);
+        else pending.future.complete(profile);
+    }
+
+    /**
+     * Sends the waiting names, and stops the scheduler thread.
+     * <p>Lookups made after closing are sent one by one, without waiting.</p>
+     */
+    @Override
+    public void close() {
+        List<Pending> taken;
+        synchronized (this) {
+            closed = true;
+            taken = takeBatch();
+        }
+        send(taken);
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,281 @@
+package fr.milekat.utils.mcnames;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of Minecraft profiles, looked up by name or by UUID.
+ *
+ * <p>Resolved profiles are kept for a TTL, and lookups that found nothing are kept too, for a shorter TTL,
+ * so that unknown names typed over and over are not sent to the Mojang API each time.
+ * Names are matched ignoring case, and UUIDs with or without dashes.
+ *
+ * <p>Each direction keeps at most {@code maxSize} entries and evicts the least recently used ones.
+ * Entries record when they were written, so a TTL change applies to the entries already cached.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class ProfileCache {
+    /** Default maximum number of entries in each direction */
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+    /** Default time to live of resolved profiles */
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+    /** Default time to live of lookups that found nothing */
+    public static final Duration DEFAULT_MISSING_TTL = Duration.ofMinutes(5);
+
+    /**
+     * A Minecraft profile.
+     *
+     * @param uuid The UUID, in the format xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx.
+     * @param name The name, with its case.
+     */
+    public record Profile(@NotNull String uuid, @NotNull String name) {}
+
+    /** Returned by lookups of names or UUIDs known to have no profile */
+    public static final Profile MISSING = new Profile("", "");
+
+    /**
+     * A cached lookup.
+     *
+     * @param profile   The profile, {@link #MISSING} if the lookup found nothing.
+     * @param writtenAt When it was cached (epoch milliseconds).
+     */
+    private record Entry(@NotNull Profile profile, long writtenAt) {}
+
+    private final int maxSize;
+    private final long ttl;
+    private final long missingTtl;
+    private final LongSupplier clock;
+    private final Map<String, Entry> byName;
+    private final Map<String, Entry> byUuid;
+
+    /**
+     * Creates a cache with the default size and TTLs.
+     */
+    public ProfileCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL, DEFAULT_MISSING_TTL);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize    The maximum number of entries in each direction.
+     * @param ttl        The time to live of resolved profiles.
+     * @param missingTtl The time to live of lookups that found nothing.
+     */
+    public ProfileCache(int maxSize, @NotNull Duration ttl, @NotNull Duration missingTtl) {
+        this(maxSize, ttl, missingTtl, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a cache reading the time from a clock.
+     *
+     * @param maxSize    The maximum number of entries in each direction.
+     * @param ttl        The time to live of resolved profiles.
+     * @param missingTtl The time to live of lookups that found nothing.
+     * @param clock      The clock, in epoch milliseconds.
+     */
+    public ProfileCache(int maxSize, @NotNull Duration ttl, @NotNull Duration missingTtl, @NotNull LongSupplier clock) {
+        if (maxSize <= 0) throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        if (ttl.isNegative() || missingTtl.isNegative()) throw new IllegalArgumentException("TTLs must not be negative");
+        this.maxSize = maxSize;
+        this.ttl = ttl.toMillis();
+        this.missingTtl = missingTtl.toMillis();
+        this.clock = clock;
+        this.byName = newLruMap(maxSize);
+        this.byUuid = newLruMap(maxSize);
+    }
+
+    private static @NotNull Map<String, Entry> newLruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the key of a name.
+     */
+    static @NotNull String nameKey(@NotNull String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the key of a UUID: its lowercase hex digits, without dashes.
+     */
+    static @NotNull String uuidKey(@NotNull String uuid) {
+        return uuid.replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Looks up a profile by name.
+     *
+     * @param name The name, in any case.
+     * @return The profile, {@link #MISSING} if the name is known to have no profile, or null if it is not cached.
+     */
+    public @Nullable Profile getByName(@NotNull String name) {
+        return get(byName, nameKey(name));
+    }
+
+    /**
+     * Looks up a profile by UUID.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The profile, {@link #MISSING} if the UUID is known to have no profile, or null if it is not cached.
+     */
+    public @Nullable Profile getByUuid(@NotNull String uuid) {
+        return get(byUuid, uuidKey(uuid));
+    }
+
+    private synchronized @Nullable Profile get(@NotNull Map<String, Entry> map, @NotNull String key) {
+        Entry entry = map.get(key);
+        if (entry == null) return null;
+        long entryTtl = entry.profile == MISSING ? missingTtl : ttl;
+        //  Expired profiles are kept until they are evicted, to be served stale
+        return clock.getAsLong() - entry.writtenAt < entryTtl ? entry.profile : null;
+    }
+
+    /**
+     * Looks up a profile by name, even if it has expired, to serve it while the Mojang API is unavailable.
+     *
+     * @param name The name, in any case.
+     * @return The profile, or null if the name is not cached or is known to have no profile.
+     */
+    public @Nullable Profile getStaleByName(@NotNull String name) {
+        return getStale(byName, nameKey(name));
+    }
+
+    /**
+     * Looks up a profile by UUID, even if it has expired, to serve it while the Mojang API is unavailable.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The profile, or null if the UUID is not cached or is known to have no profile.
+     */
+    public @Nullable Profile getStaleByUuid(@NotNull String uuid) {
+        return getStale(byUuid, uuidKey(uuid));
+    }
+
+    private synchronized @Nullable Profile getStale(@NotNull Map<String, Entry> map, @NotNull String key) {
+        Entry entry = map.get(key);
+        return entry == null || entry.profile == MISSING ? null : entry.profile;
+    }
+
+    /**
+     * Caches a resolved profile, in both directions.
+     *
+     * @param profile The profile.
+     */
+    public void put(@NotNull Profile profile) {
+        put(profile, clock.getAsLong());
+    }
+
+    /**
+     * Caches a profile resolved earlier, such as a profile read from a {@link ProfileStore}, in both directions.
+     *
+     * @param profile   The profile.
+     * @param writtenAt When it was resolved (epoch milliseconds), its TTL runs from then.
+     */
+    public void put(@NotNull Profile profile, long writtenAt) {
+        if (profile == MISSING) throw new IllegalArgumentException("Use putMissingName or putMissingUuid");
+        Entry entry = new Entry(profile, writtenAt);
+        synchronized (this) {
+            byName.put(nameKey(profile.name()), entry);
+            byUuid.put(uuidKey(profile.uuid()), entry);
+        }
+    }
+
+    /**
+     * Caches a profile known to stay valid until a given time, such as a profile read from a {@link ProfileStore},
+     * in both directions.
+     * <p>The profile expires from the cache at that time, or after the TTL if it comes first.</p>
+     *
+     * @param profile   The profile.
+     * @param expiresAt When it stops being valid (epoch milliseconds).
+     */
+    public void putUntil(@NotNull Profile profile, long expiresAt) {
+        put(profile, Math.min(expiresAt - ttl, clock.getAsLong()));
+    }
+
+    /**
+     * Caches that a name has no profile.
+     *
+     * @param name The name.
+     */
+    public synchronized void putMissingName(@NotNull String name) {
+        byName.put(nameKey(name), new Entry(MISSING, clock.getAsLong()));
+    }
+
+    /**
+     * Caches that a UUID has no profile.
+     *
+     * @param uuid The UUID, with or without dashes.
+     */
+    public synchronized void putMissingUuid(@NotNull String uuid) {
+        byUuid.put(uuidKey(uuid), new Entry(MISSING, clock.getAsLong()));
+    }
+
+    /**
+     * Removes a name from the cache, and the UUID of its profile.
+     *
+     * @param name The name.
+     */
+    public synchronized void invalidateName(@NotNull String name) {
+        Entry entry = byName.remove(nameKey(name));
+        if (entry != null && entry.profile != MISSING) byUuid.remove(uuidKey(entry.profile.uuid()));
+    }
+
+    /**
+     * Removes a UUID from the cache, and the name of its profile.
+     *
+     * @param uuid The UUID, with or without dashes.
+     */
+    public synchronized void invalidateUuid(@NotNull String uuid) {
+        Entry entry = byUuid.remove(uuidKey(uuid));
+        if (entry != null && entry.profile != MISSING) byName.remove(nameKey(entry.profile.name()));
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public synchronized void clear() {
+        byName.clear();
+        byUuid.clear();
+    }
+
+    /**
+     * Gets the number of cached names, expired ones included until they are evicted.
+     *
+     * @return The number of names.
+     */
+    public synchronized int size() {
+        return byName.size();
+    }
+
+    /**
+     * Gets the time to live of resolved profiles.
+     *
+     * @return The TTL.
+     */
+    public @NotNull Duration getTtl() {
+        return Duration.ofMillis(ttl);
+    }
+
+    /**
+     * Gets the maximum number of entries in each direction.
+     *
+     * @return The maximum size.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
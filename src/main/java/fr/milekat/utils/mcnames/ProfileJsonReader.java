@@ -0,0 +1,211 @@
+package fr.milekat.utils.mcnames;
+
+import fr.milekat.utils.mcnames.ProfileCache.Profile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader of the profiles returned by the Mojang API, such as
+ * {@code {"id":"069a79f444e94726a5befca90e38aaf5","name":"Notch"}}.
+ *
+ * <p>The response is read char by char from a {@link Reader}, without building a string of the body nor a JSON tree:
+ * only the {@code id} and {@code name} fields of each profile are kept, and every other value
+ * ({@code legacy}, {@code properties}...) is skipped. The dashes are added to the id with {@link UuidCodec}.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class ProfileJsonReader {
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[512];
+    private final StringBuilder string = new StringBuilder(32);
+    private int position;
+    private int limit;
+
+    private ProfileJsonReader(@NotNull Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads a single profile.
+     *
+     * @param reader The response body.
+     * @return The profile, or null if the body is empty.
+     * @throws IOException If the body can't be read, or is not a profile.
+     */
+    public static @Nullable Profile readProfile(@NotNull Reader reader) throws IOException {
+        ProfileJsonReader json = new ProfileJsonReader(reader);
+        if (json.peek() == EOF) return null;
+        Profile profile = json.readObject();
+        json.expectEnd();
+        return profile;
+    }
+
+    /**
+     * Reads an array of profiles, such as a bulk lookup response.
+     *
+     * @param reader   The response body.
+     * @param consumer Called with each profile, in order.
+     * @throws IOException If the body can't be read, or is not an array of profiles.
+     */
+    public static void readProfiles(@NotNull Reader reader, @NotNull Consumer<Profile> consumer) throws IOException {
+        ProfileJsonReader json = new ProfileJsonReader(reader);
+        json.expect('[');
+        if (json.peek() == ']') {
+            json.position++;
+        } else {
+            do {
+                consumer.accept(json.readObject());
+            } while (json.nextSeparator(']'));
+        }
+        json.expectEnd();
+    }
+
+    /**
+     * Reads an object, keeping its id and name.
+     */
+    private @NotNull Profile readObject() throws IOException {
+        expect('{');
+        String id = null;
+        String name = null;
+        if (peek() == '}') {
+            position++;
+        } else {
+            do {
+                String key = readString();
+                expect(':');
+                if (key.equals("id") && peek() == '"') id = readString();
+                else if (key.equals("name") && peek() == '"') name = readString();
+                else skipValue();
+            } while (nextSeparator('}'));
+        }
+        if (id == null || name == null) throw new IOException("Profile without id or name");
+        try {
+            return new Profile(UuidCodec.toDashed(id), name);
+        } catch (IllegalArgumentException exception) {
+            throw new IOException("Profile with an invalid id: " + id, exception);
+        }
+    }
+
+    /**
+     * Skips a value, of any type.
+     */
+    private void skipValue() throws IOException {
+        int c = peek();
+        switch (c) {
+            case '"' -> readString();
+            case '{', '[' -> {
+                position++;
+                char close = c == '{' ? '}' : ']';
+                if (peek() == close) {
+                    position++;
+                    return;
+                }
+                do {
+                    if (close == '}') {
+                        readString();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (nextSeparator(close));
+            }
+            case EOF -> throw new IOException("Unexpected end of JSON");
+            default -> {
+                //  Number, true, false or null
+                int start = position;
+                while (position < limit || fill()) {
+                    char next = buffer[position];
+                    if (next == ',' || next == '}' || next == ']' || Character.isWhitespace(next)) break;
+                    position++;
+                }
+                if (position == start) throw new IOException("Unexpected char in JSON: " + (char) c);
+            }
+        }
+    }
+
+    /**
+     * Reads a string, the next char being its opening quote.
+     */
+    private @NotNull String readString() throws IOException {
+        expect('"');
+        string.setLength(0);
+        while (true) {
+            if (position == limit && !fill()) throw new IOException("Unexpected end of JSON string");
+            char c = buffer[position++];
+            if (c == '"') return string.toString();
+            if (c != '\\') {
+                string.append(c);
+                continue;
+            }
+            if (position == limit && !fill()) throw new IOException("Unexpected end of JSON string");
+            char escaped = buffer[position++];
+            switch (escaped) {
+                case 'n' -> string.append('\n');
+                case 't' -> string.append('\t');
+                case 'r' -> string.append('\r');
+                case 'b' -> string.append('\b');
+                case 'f' -> string.append('\f');
+                case 'u' -> {
+                    int value = 0;
+                    for (int i = 0; i < 4; i++) {
+                        if (position == limit && !fill()) throw new IOException("Unexpected end of JSON string");
+                        int digit = Character.digit(buffer[position++], 16);
+                        if (digit < 0) throw new IOException("Invalid unicode escape in JSON string");
+                        value = value << 4 | digit;
+                    }
+                    string.append((char) value);
+                }
+                default -> string.append(escaped);
+            }
+        }
+    }
+
+    /**
+     * Reads the separator after a value.
+     *
+     * @return true if another value follows, false if the container is closed.
+     */
+    private boolean nextSeparator(char close) throws IOException {
+        int c = peek();
+        position++;
+        if (c == ',') return true;
+        if (c == close) return false;
+        throw new IOException("Expected ',' or '" + close + "' in JSON");
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peek() != expected) throw new IOException("Expected '" + expected + "' in JSON");
+        position++;
+    }
+
+    private void expectEnd() throws IOException {
+        if (peek() != EOF) throw new IOException("Unexpected content after JSON");
+    }
+
+    /**
+     * Skips whitespace, and gets the next char without consuming it.
+     */
+    private int peek() throws IOException {
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (!Character.isWhitespace(c)) return c;
+            position++;
+        }
+        return EOF;
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
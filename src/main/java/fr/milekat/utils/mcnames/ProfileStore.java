@@ -0,0 +1,703 @@
+package fr.milekat.utils.mcnames;
+
+import fr.milekat.utils.mcnames.ProfileCache.Profile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Append-only file of Minecraft profiles, memory-mapped and indexed in memory,
+ * so that resolved profiles survive restarts.
+ *
+ * <p>Each profile is written as a fixed-size record holding its UUID, its name and when it was resolved,
+ * so the TTL of a profile keeps running across restarts. A profile resolved again is appended,
+ * and the newest record of each UUID wins. Two open-addressing tables of record numbers index the records
+ * by UUID and by name; they are rebuilt from the file when it is opened.
+ *
+ * <p>Every {@value #COMPACTION_THRESHOLD} appended records, a background thread counts the outdated and expired
+ * records, and once they are at least half of the file, compacts it in place. The live records and their indexes
+ * are gathered while lookups keep running, then swapped in at once. Records are only moved towards the start
+ * of the file, and the newest record wins by its write time, so a crash during a compaction loses no profile.
+ *
+ * <p>Names longer than {@value #MAX_NAME_BYTES} bytes in UTF-8 are not stored.
+ * Lookups can run on any thread; they wait while a record is appended or compacted records are swapped in.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class ProfileStore implements AutoCloseable {
+    /** Default time to live of stored profiles */
+    public static final Duration DEFAULT_TTL = Duration.ofDays(1);
+    /** Maximum length of a stored name, in UTF-8 bytes */
+    public static final int MAX_NAME_BYTES = 16;
+
+    /**
+     * A stored profile.
+     *
+     * @param profile   The profile.
+     * @param writtenAt When it was resolved (epoch milliseconds).
+     */
+    public record Entry(@NotNull Profile profile, long writtenAt) {}
+
+    /** "MCPS" */
+    private static final int MAGIC = 0x4D435053;
+    private static final int VERSION = 1;
+    /** Magic, version, record count */
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+    /** UUID (16), write time (8), name length (1), name (16), padding (7) */
+    private static final int RECORD_SIZE = 48;
+    private static final int TIME_OFFSET = 16;
+    private static final int NAME_LENGTH_OFFSET = 24;
+    private static final int NAME_OFFSET = 25;
+    private static final int INITIAL_CAPACITY = 1024;
+    /** Number of appended records between two checks for outdated and expired records */
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    /**
+     * Live records copied out of the file, and their indexes, ready to be swapped in.
+     *
+     * @param scanned   The number of records when they were gathered.
+     * @param records   The live records, in file order.
+     * @param kept      The number of live records.
+     * @param uuidSlots The UUID index of the live records.
+     * @param nameSlots  The name index of the live records.
+     * @param nameHashes The hash of the name of each slot of {@code nameSlots}.
+     * @param nameCount The number of distinct names of the live records.
+     */
+    private record Compaction(int scanned, byte @NotNull [] records, int kept, int @NotNull [] uuidSlots,
+                              int @NotNull [] nameSlots, int @NotNull [] nameHashes, int nameCount) {}
+
+    private final Path file;
+    private final long ttl;
+    private final LongSupplier clock;
+    private final FileChannel channel;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService compactor;
+    /** Held while compacting, so that two compactions do not swap in records gathered at the same time */
+    private final Object compactionLock = new Object();
+    private MappedByteBuffer buffer;
+    /** Number of records that fit in the mapped buffer */
+    private int capacity;
+    private int count;
+    /** Record number + 1 of each UUID, 0 for free slots */
+    private int[] uuidSlots;
+    /** Record number + 1 of each name, 0 for free slots */
+    private int[] nameSlots;
+    /** Hash of the lowercase name of each slot of {@link #nameSlots}, so that probes do not decode names */
+    private int[] nameHashes;
+    /** Number of distinct UUIDs */
+    private int uuidCount;
+    private int nameCount;
+    private int appendedSinceCheck;
+    private boolean compactionQueued;
+    private boolean closed;
+
+    /**
+     * Opens a store with the default TTL, creating its file if needed.
+     *
+     * @param file The file of the store.
+     * @throws IOException If the file can't be opened, or is not a profile store.
+     */
+    public ProfileStore(@NotNull Path file) throws IOException {
+        this(file, DEFAULT_TTL);
+    }
+
+    /**
+     * Opens a store, creating its file if needed.
+     *
+     * @param file The file of the store.
+     * @param ttl  The time to live of stored profiles.
+     * @throws IOException If the file can't be opened, or is not a profile store.
+     */
+    public ProfileStore(@NotNull Path file, @NotNull Duration ttl) throws IOException {
+        this(file, ttl, System::currentTimeMillis);
+    }
+
+    /**
+     * Opens a store reading the time from a clock, creating its file if needed.
+     *
+     * @param file  The file of the store.
+     * @param ttl   The time to live of stored profiles.
+     * @param clock The clock, in epoch milliseconds.
+     * @throws IOException If the file can't be opened, or is not a profile store.
+     */
+    public ProfileStore(@NotNull Path file, @NotNull Duration ttl, @NotNull LongSupplier clock) throws IOException {
+        if (ttl.isNegative()) throw new IllegalArgumentException("TTL must not be negative: " + ttl);
+        this.file = file;
+        this.ttl = ttl.toMillis();
+        this.clock = clock;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            load();
+        } catch (IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+        this.compactor = new ThreadPoolExecutor(0, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ProfileStore-compactor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            map(INITIAL_CAPACITY);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(COUNT_OFFSET, 0);
+        } else {
+            if (size < HEADER_SIZE) throw new IOException("Not a profile store: " + file);
+            map((int) Math.max(INITIAL_CAPACITY, (size - HEADER_SIZE) / RECORD_SIZE));
+            if (buffer.getInt(0) != MAGIC) throw new IOException("Not a profile store: " + file);
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported profile store version " + buffer.getInt(4) + ": " + file);
+            }
+            count = buffer.getInt(COUNT_OFFSET);
+            if (count < 0 || count > capacity) throw new IOException("Corrupted profile store: " + file);
+        }
+        rebuildIndexes();
+    }
+
+    private void map(int recordCapacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordCapacity * RECORD_SIZE);
+        capacity = recordCapacity;
+    }
+
+    /**
+     * Indexes the records of the file, the newest record of each UUID and of each name winning.
+     */
+    private void rebuildIndexes() {
+        int slots = slotCount(count);
+        uuidSlots = new int[slots];
+        nameSlots = new int[slots];
+        nameHashes = new int[slots];
+        uuidCount = 0;
+        nameCount = 0;
+        for (int record = 0; record < count; record++) index(record);
+    }
+
+    /**
+     * Gets the size of index tables at most half full with a number of records.
+     */
+    private static int slotCount(int records) {
+        return Integer.highestOneBit(Math.max(16, records) * 2 - 1) << 1;
+    }
+
+    //  Records
+
+    private int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    private long mostBits(int record) {
+        return buffer.getLong(offset(record));
+    }
+
+    private long leastBits(int record) {
+        return buffer.getLong(offset(record) + 8);
+    }
+
+    private long writtenAt(int record) {
+        return buffer.getLong(offset(record) + TIME_OFFSET);
+    }
+
+    private @NotNull String name(int record) {
+        int offset = offset(record);
+        int length = Math.min(buffer.get(offset + NAME_LENGTH_OFFSET) & 0xFF, MAX_NAME_BYTES);
+        byte[] bytes = new byte[length];
+        buffer.get(offset + NAME_OFFSET, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void write(int record, long most, long least, long writtenAt, byte @NotNull [] name) {
+        int offset = offset(record);
+        buffer.putLong(offset, most);
+        buffer.putLong(offset + 8, least);
+        buffer.putLong(offset + TIME_OFFSET, writtenAt);
+        buffer.put(offset + NAME_LENGTH_OFFSET, (byte) name.length);
+        buffer.put(offset + NAME_OFFSET, name);
+        buffer.put(offset + NAME_OFFSET + name.length, new byte[RECORD_SIZE - NAME_OFFSET - name.length]);
+    }
+
+    private void copy(int from, int to) {
+        byte[] bytes = new byte[RECORD_SIZE];
+        buffer.get(offset(from), bytes);
+        buffer.put(offset(to), bytes);
+    }
+
+    //  Indexes
+
+    private static int mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static int uuidHash(long most, long least) {
+        return mix(most * 31 + least);
+    }
+
+    /**
+     * Finds the slot of a UUID.
+     *
+     * @return The slot holding the UUID, or the free slot where it would be inserted.
+     */
+    private int uuidSlot(long most, long least) {
+        int mask = uuidSlots.length - 1;
+        for (int slot = uuidHash(most, least) & mask; ; slot = (slot + 1) & mask) {
+            int record = uuidSlots[slot] - 1;
+            if (record < 0 || (mostBits(record) == most && leastBits(record) == least)) return slot;
+        }
+    }
+
+    /**
+     * Finds the slot of a name.
+     *
+     * @param key The lowercase name.
+     * @return The slot holding the name, or the free slot where it would be inserted.
+     */
+    private int nameSlot(@NotNull String key) {
+        int hash = mix(key.hashCode());
+        int mask = nameSlots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int record = nameSlots[slot] - 1;
+            if (record < 0 || (nameHashes[slot] == hash && nameMatches(record, key))) return slot;
+        }
+    }
+
+    /**
+     * Finds the slot of the name of a record.
+     *
+     * @return The slot holding the name, or the free slot where it would be inserted.
+     */
+    private int nameSlot(int record, int hash) {
+        int mask = nameSlots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int indexed = nameSlots[slot] - 1;
+            if (indexed < 0 || (nameHashes[slot] == hash && sameName(indexed, record))) return slot;
+        }
+    }
+
+    //  Names are compared and hashed in the file while they are ASCII, and decoded otherwise
+
+    private int nameLength(int record) {
+        return Math.min(buffer.get(offset(record) + NAME_LENGTH_OFFSET) & 0xFF, MAX_NAME_BYTES);
+    }
+
+    /**
+     * Gets a byte of the name of a record, lowercased, or -1 if it is not ASCII.
+     */
+    private int lowerNameByte(int record, int index) {
+        byte b = buffer.get(offset(record) + NAME_OFFSET + index);
+        if (b < 0) return -1;
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    private boolean isAsciiName(int record) {
+        int length = nameLength(record);
+        for (int i = 0; i < length; i++) {
+            if (lowerNameByte(record, i) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the lowercase name of a record, as {@code mix(ProfileCache.nameKey(name).hashCode())}.
+     */
+    private int nameHash(int record) {
+        if (!isAsciiName(record)) return mix(ProfileCache.nameKey(name(record)).hashCode());
+        int hash = 0;
+        int length = nameLength(record);
+        for (int i = 0; i < length; i++) hash = 31 * hash + lowerNameByte(record, i);
+        return mix(hash);
+    }
+
+    /**
+     * Checks if the name of a record is a lowercase name.
+     */
+    private boolean nameMatches(int record, @NotNull String key) {
+        if (!isAsciiName(record)) return ProfileCache.nameKey(name(record)).equals(key);
+        int length = nameLength(record);
+        if (length != key.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (lowerNameByte(record, i) != key.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if two records have the same name, ignoring case.
+     */
+    private boolean sameName(int record, int other) {
+        if (!isAsciiName(record) || !isAsciiName(other)) {
+            return ProfileCache.nameKey(name(record)).equals(ProfileCache.nameKey(name(other)));
+        }
+        int length = nameLength(record);
+        if (length != nameLength(other)) return false;
+        for (int i = 0; i < length; i++) {
+            if (lowerNameByte(record, i) != lowerNameByte(other, i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Indexes a record, unless a newer record of its UUID (or of its name) is already indexed.
+     */
+    private void index(int record) {
+        if (2 * (Math.max(uuidCount, nameCount) + 1) > uuidSlots.length) {
+            //  Keep the tables at most half full
+            int[] oldUuidSlots = uuidSlots;
+            int[] oldNameSlots = nameSlots;
+            int[] oldNameHashes = nameHashes;
+            uuidSlots = new int[oldUuidSlots.length * 2];
+            nameSlots = new int[oldNameSlots.length * 2];
+            nameHashes = new int[oldNameSlots.length * 2];
+            for (int value : oldUuidSlots) {
+                if (value != 0) uuidSlots[uuidSlot(mostBits(value - 1), leastBits(value - 1))] = value;
+            }
+            int mask = nameSlots.length - 1;
+            for (int i = 0; i < oldNameSlots.length; i++) {
+                if (oldNameSlots[i] == 0) continue;
+                //  Indexed names are distinct, so the first free slot is theirs
+                int slot = oldNameHashes[i] & mask;
+                while (nameSlots[slot] != 0) slot = (slot + 1) & mask;
+                nameSlots[slot] = oldNameSlots[i];
+                nameHashes[slot] = oldNameHashes[i];
+            }
+        }
+        long writtenAt = writtenAt(record);
+        int uuidSlot = uuidSlot(mostBits(record), leastBits(record));
+        int indexed = uuidSlots[uuidSlot] - 1;
+        if (indexed < 0) uuidCount++;
+        if (indexed < 0 || writtenAt(indexed) <= writtenAt) uuidSlots[uuidSlot] = record + 1;
+        int nameHash = nameHash(record);
+        int nameSlot = nameSlot(record, nameHash);
+        indexed = nameSlots[nameSlot] - 1;
+        if (indexed < 0) nameCount++;
+        if (indexed < 0 || writtenAt(indexed) <= writtenAt) {
+            nameSlots[nameSlot] = record + 1;
+            nameHashes[nameSlot] = nameHash;
+        }
+    }
+
+    /**
+     * Checks if a record is the newest one of its UUID, and is not expired.
+     */
+    private boolean isLive(int record, long now) {
+        return isNewest(record) && now - writtenAt(record) < ttl;
+    }
+
+    /**
+     * Checks if a record is the newest one of its UUID.
+     */
+    private boolean isNewest(int record) {
+        return uuidSlots[uuidSlot(mostBits(record), leastBits(record))] == record + 1;
+    }
+
+    private @NotNull Entry entry(int record) {
+        return new Entry(new Profile(UuidCodec.format(mostBits(record), leastBits(record)), name(record)),
+                writtenAt(record));
+    }
+
+    //  Public API
+
+    /**
+     * Looks up a profile by name.
+     *
+     * @param name The name, in any case.
+     * @return The stored profile, or null if the name is not stored, has expired, or now belongs to no stored UUID.
+     */
+    public @Nullable Entry getByName(@NotNull String name) {
+        return getByName(name, false);
+    }
+
+    /**
+     * Looks up a profile by name, even if it has expired, to serve it while the Mojang API is unavailable.
+     * <p>Expired profiles are only kept until the next compaction.</p>
+     *
+     * @param name The name, in any case.
+     * @return The stored profile, or null if the name is not stored, or now belongs to no stored UUID.
+     */
+    public @Nullable Entry getStaleByName(@NotNull String name) {
+        return getByName(name, true);
+    }
+
+    private @Nullable Entry getByName(@NotNull String name, boolean stale) {
+        lock.readLock().lock();
+        try {
+            if (closed) return null;
+            int record = nameSlots[nameSlot(ProfileCache.nameKey(name))] - 1;
+            //  The UUID of the name may have changed its name since
+            if (record < 0 || !(stale ? isNewest(record) : isLive(record, clock.getAsLong()))) return null;
+            return entry(record);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up a profile by UUID.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The stored profile, or null if the UUID is not stored, has expired, or is not a valid UUID.
+     */
+    public @Nullable Entry getByUuid(@NotNull String uuid) {
+        return getByUuid(uuid, false);
+    }
+
+    /**
+     * Looks up a profile by UUID, even if it has expired, to serve it while the Mojang API is unavailable.
+     * <p>Expired profiles are only kept until the next compaction.</p>
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The stored profile, or null if the UUID is not stored, or is not a valid UUID.
+     */
+    public @Nullable Entry getStaleByUuid(@NotNull String uuid) {
+        return getByUuid(uuid, true);
+    }
+
+    private @Nullable Entry getByUuid(@NotNull String uuid, boolean stale) {
+        if (!UuidCodec.isValid(uuid)) return null;
+        long most = UuidCodec.parseMostBits(uuid);
+        long least = UuidCodec.parseLeastBits(uuid);
+        lock.readLock().lock();
+        try {
+            if (closed) return null;
+            int record = uuidSlots[uuidSlot(most, least)] - 1;
+            return record >= 0 && (stale || clock.getAsLong() - writtenAt(record) < ttl) ? entry(record) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores a profile resolved now.
+     *
+     * @param profile The profile.
+     * @return true if it was stored, false if its name is too long, or if the file can't grow.
+     */
+    public boolean put(@NotNull Profile profile) {
+        return put(profile, clock.getAsLong());
+    }
+
+    /**
+     * Stores a profile.
+     *
+     * @param profile   The profile.
+     * @param writtenAt When it was resolved (epoch milliseconds).
+     * @return true if it was stored, false if its name is too long, or if the file can't grow.
+     * @throws IllegalArgumentException If the UUID of the profile is not valid.
+     */
+    public boolean put(@NotNull Profile profile, long writtenAt) {
+        long most = UuidCodec.parseMostBits(profile.uuid());
+        long least = UuidCodec.parseLeastBits(profile.uuid());
+        byte[] name = profile.name().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) return false;
+        lock.writeLock().lock();
+        try {
+            if (closed) return false;
+            if (count == capacity) map(capacity * 2);
+            write(count, most, least, writtenAt, name);
+            index(count);
+            buffer.putInt(COUNT_OFFSET, ++count);
+            if (++appendedSinceCheck >= COMPACTION_THRESHOLD && !compactionQueued) {
+                appendedSinceCheck = 0;
+                compactionQueued = true;
+                compactor.execute(() -> compact(true));
+            }
+            return true;
+        } catch (IOException exception) {
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the time to live of stored profiles.
+     *
+     * @return The TTL.
+     */
+    public @NotNull Duration getTtl() {
+        return Duration.ofMillis(ttl);
+    }
+
+    /**
+     * Gets the number of stored UUIDs, expired ones included until the next compaction.
+     *
+     * @return The number of UUIDs.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return uuidCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of records of the file, outdated ones included.
+     *
+     * @return The number of records.
+     */
+    public int getRecordCount() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the outdated and expired records now, instead of waiting for the background compaction.
+     */
+    public void compact() {
+        compact(false);
+    }
+
+    /**
+     * Compacts the file, gathering the live records while lookups keep running, then swapping them in.
+     *
+     * @param ifHalfOutdated true to only compact if at least half of the records are outdated or expired.
+     */
+    private void compact(boolean ifHalfOutdated) {
+        synchronized (compactionLock) {
+            Compaction compaction;
+            lock.readLock().lock();
+            try {
+                compaction = closed ? null : gatherLiveRecords(ifHalfOutdated);
+            } finally {
+                lock.readLock().unlock();
+            }
+            lock.writeLock().lock();
+            try {
+                compactionQueued = false;
+                if (compaction != null && !closed) swapIn(compaction);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Copies the live records out of the file and indexes them by their future record numbers, under the read lock.
+     *
+     * @return The compaction to swap in, or null if it is not worth it.
+     */
+    private @Nullable Compaction gatherLiveRecords(boolean ifHalfOutdated) {
+        int scanned = count;
+        long now = clock.getAsLong();
+        int[] live = new int[scanned];
+        int kept = 0;
+        for (int record = 0; record < scanned; record++) {
+            if (isLive(record, now)) live[kept++] = record;
+        }
+        if (kept == scanned || (ifHalfOutdated && 2 * kept > scanned)) return null;
+        byte[] records = new byte[kept * RECORD_SIZE];
+        int slots = slotCount(kept);
+        int[] newUuidSlots = new int[slots];
+        int[] newNameSlots = new int[slots];
+        int[] newNameHashes = new int[slots];
+        int newNameCount = 0;
+        int mask = slots - 1;
+        for (int i = 0; i < kept; i++) {
+            int record = live[i];
+            buffer.get(offset(record), records, i * RECORD_SIZE, RECORD_SIZE);
+            //  Live records are the newest of their UUID, so their UUIDs are distinct
+            int slot = uuidHash(mostBits(record), leastBits(record)) & mask;
+            while (newUuidSlots[slot] != 0) slot = (slot + 1) & mask;
+            newUuidSlots[slot] = i + 1;
+            //  A name may still be held by several UUIDs, the newest record wins
+            int nameHash = nameHash(record);
+            slot = nameHash & mask;
+            while (newNameSlots[slot] != 0
+                    && (newNameHashes[slot] != nameHash || !sameName(live[newNameSlots[slot] - 1], record))) {
+                slot = (slot + 1) & mask;
+            }
+            int indexed = newNameSlots[slot] - 1;
+            if (indexed < 0) newNameCount++;
+            if (indexed < 0 || writtenAt(live[indexed]) <= writtenAt(record)) {
+                newNameSlots[slot] = i + 1;
+                newNameHashes[slot] = nameHash;
+            }
+        }
+        return new Compaction(scanned, records, kept, newUuidSlots, newNameSlots, newNameHashes, newNameCount);
+    }
+
+    /**
+     * Writes the gathered records over the start of the file and swaps in their indexes, under the write lock.
+     * <p>Records appended since they were gathered are moved right after them, and indexed again.</p>
+     */
+    private void swapIn(@NotNull Compaction compaction) {
+        int previousCount = count;
+        buffer.put(HEADER_SIZE, compaction.records);
+        for (int record = compaction.scanned; record < previousCount; record++) {
+            copy(record, compaction.kept + record - compaction.scanned);
+        }
+        count = compaction.kept + previousCount - compaction.scanned;
+        buffer.putInt(COUNT_OFFSET, count);
+        //  Zero the records left behind, so that the file compresses well in backups
+        byte[] zeros = new byte[RECORD_SIZE];
+        for (int record = count; record < previousCount; record++) buffer.put(offset(record), zeros);
+        uuidSlots = compaction.uuidSlots;
+        nameSlots = compaction.nameSlots;
+        nameHashes = compaction.nameHashes;
+        uuidCount = compaction.kept;
+        nameCount = compaction.nameCount;
+        for (int record = compaction.kept; record < count; record++) index(record);
+    }
+
+    /**
+     * Writes the pending changes to the disk.
+     */
+    public void flush() {
+        lock.readLock().lock();
+        try {
+            if (!closed) buffer.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the pending changes to the disk and closes the file.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        lock.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
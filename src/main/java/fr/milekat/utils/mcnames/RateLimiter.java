@@ -0,0 +1,98 @@
+package fr.milekat.utils.mcnames;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limiting the rate of requests.
+ *
+ * <p>The bucket holds up to {@code capacity} tokens and refills continuously, at {@code capacity} tokens per period,
+ * so it allows bursts of {@code capacity} requests, and {@code capacity} requests per period on average.
+ * Acquiring never blocks: a request without token should be rejected, or delayed by the caller.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class RateLimiter {
+    private final long capacity;
+    private final long nanosPerToken;
+    private final LongSupplier nanoClock;
+    /** Tokens available at {@link #refilledAt}, guarded by this */
+    private long tokens;
+    /** Time of the last refill, minus the time already spent on a partial token (nanoseconds) */
+    private long refilledAt;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param capacity The maximum number of tokens, and the number of tokens refilled per period.
+     * @param period   The period.
+     */
+    public RateLimiter(long capacity, @NotNull Duration period) {
+        this(capacity, period, System::nanoTime);
+    }
+
+    /**
+     * Creates a full bucket reading the time from a clock.
+     *
+     * @param capacity  The maximum number of tokens, and the number of tokens refilled per period.
+     * @param period    The period.
+     * @param nanoClock The clock, in nanoseconds, such as {@link System#nanoTime()}.
+     */
+    public RateLimiter(long capacity, @NotNull Duration period, @NotNull LongSupplier nanoClock) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        if (period.isNegative() || period.isZero()) throw new IllegalArgumentException("Period must be positive: " + period);
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1L, period.toNanos() / capacity);
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long refilled = (now - refilledAt) / nanosPerToken;
+        if (refilled <= 0) return;
+        if (tokens + refilled >= capacity) {
+            tokens = capacity;
+            refilledAt = now;
+        } else {
+            tokens += refilled;
+            refilledAt += refilled * nanosPerToken;
+        }
+    }
+
+    /**
+     * Takes a token, if one is available.
+     *
+     * @return true if a token was taken, false if the bucket is empty.
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens == 0) return false;
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Gets the number of available tokens.
+     *
+     * @return The number of tokens.
+     */
+    public synchronized long getAvailable() {
+        refill();
+        return tokens;
+    }
+
+    /**
+     * Gets the maximum number of tokens.
+     *
+     * @return The capacity.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+}
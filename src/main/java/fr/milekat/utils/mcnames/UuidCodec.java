@@ -0,0 +1,202 @@
+package fr.milekat.utils.mcnames;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Formats and parses UUIDs, with or without dashes, with char arithmetic.
+ *
+ * <p>The Mojang API returns UUIDs without dashes ({@code 069a79f444e94726a5befca90e38aaf5}), while Bukkit
+ * and {@link UUID#toString()} use dashes ({@code 069a79f4-44e9-4726-a5be-fca90e38aaf5}).
+ * This codec converts between both, and to the two {@code long}s of a UUID, without regex nor substrings.
+ * Parsing accepts both forms, in any case; formatting writes lowercase digits.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class UuidCodec {
+    /** Length of a UUID with dashes */
+    public static final int DASHED_LENGTH = 36;
+    /** Length of a UUID without dashes */
+    public static final int DASHLESS_LENGTH = 32;
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    /** Value of each ASCII hex digit, -1 for the other chars */
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) VALUES['0' + i] = (byte) i;
+        for (int i = 0; i < 6; i++) {
+            VALUES['a' + i] = (byte) (10 + i);
+            VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private UuidCodec() {}
+
+    /**
+     * Formats a UUID with dashes.
+     *
+     * @param mostBits  The most significant bits of the UUID.
+     * @param leastBits The least significant bits of the UUID.
+     * @return The UUID, such as {@code 069a79f4-44e9-4726-a5be-fca90e38aaf5}.
+     */
+    @Contract(pure = true)
+    public static @NotNull String format(long mostBits, long leastBits) {
+        char[] chars = new char[DASHED_LENGTH];
+        writeHex(chars, 0, mostBits >>> 32, 8);
+        chars[8] = '-';
+        writeHex(chars, 9, mostBits >>> 16, 4);
+        chars[13] = '-';
+        writeHex(chars, 14, mostBits, 4);
+        chars[18] = '-';
+        writeHex(chars, 19, leastBits >>> 48, 4);
+        chars[23] = '-';
+        writeHex(chars, 24, leastBits, 12);
+        return new String(chars);
+    }
+
+    /**
+     * Formats a UUID with dashes.
+     *
+     * @param uuid The UUID.
+     * @return The UUID, such as {@code 069a79f4-44e9-4726-a5be-fca90e38aaf5}.
+     */
+    @Contract(pure = true)
+    public static @NotNull String format(@NotNull UUID uuid) {
+        return format(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Formats a UUID without dashes, as the Mojang API does.
+     *
+     * @param mostBits  The most significant bits of the UUID.
+     * @param leastBits The least significant bits of the UUID.
+     * @return The UUID, such as {@code 069a79f444e94726a5befca90e38aaf5}.
+     */
+    @Contract(pure = true)
+    public static @NotNull String formatDashless(long mostBits, long leastBits) {
+        char[] chars = new char[DASHLESS_LENGTH];
+        writeHex(chars, 0, mostBits, 16);
+        writeHex(chars, 16, leastBits, 16);
+        return new String(chars);
+    }
+
+    /**
+     * Writes the lowest digits of a value, from its last digit.
+     */
+    private static void writeHex(char @NotNull [] chars, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Adds the dashes to a UUID, or lowercases a UUID that already has them.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The UUID with dashes, in lowercase.
+     * @throws IllegalArgumentException If the UUID is not valid.
+     */
+    @Contract(pure = true)
+    public static @NotNull String toDashed(@NotNull CharSequence uuid) {
+        return format(parseMostBits(uuid), parseLeastBits(uuid));
+    }
+
+    /**
+     * Removes the dashes of a UUID, or lowercases a UUID that has none.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The UUID without dashes, in lowercase.
+     * @throws IllegalArgumentException If the UUID is not valid.
+     */
+    @Contract(pure = true)
+    public static @NotNull String toDashless(@NotNull CharSequence uuid) {
+        return formatDashless(parseMostBits(uuid), parseLeastBits(uuid));
+    }
+
+    /**
+     * Parses a UUID.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The UUID.
+     * @throws IllegalArgumentException If the UUID is not valid.
+     */
+    @Contract(pure = true)
+    public static @NotNull UUID parse(@NotNull CharSequence uuid) {
+        return new UUID(parseMostBits(uuid), parseLeastBits(uuid));
+    }
+
+    /**
+     * Parses the most significant bits of a UUID.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The most significant bits.
+     * @throws IllegalArgumentException If the UUID is not valid.
+     */
+    @Contract(pure = true)
+    public static long parseMostBits(@NotNull CharSequence uuid) {
+        if (uuid.length() == DASHLESS_LENGTH) return parseHex(uuid, 0, 16);
+        checkDashes(uuid);
+        return parseHex(uuid, 0, 8) << 32 | parseHex(uuid, 9, 4) << 16 | parseHex(uuid, 14, 4);
+    }
+
+    /**
+     * Parses the least significant bits of a UUID.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The least significant bits.
+     * @throws IllegalArgumentException If the UUID is not valid.
+     */
+    @Contract(pure = true)
+    public static long parseLeastBits(@NotNull CharSequence uuid) {
+        if (uuid.length() == DASHLESS_LENGTH) return parseHex(uuid, 16, 16);
+        checkDashes(uuid);
+        return parseHex(uuid, 19, 4) << 48 | parseHex(uuid, 24, 12);
+    }
+
+    /**
+     * Checks if a UUID is valid.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return true if it is a valid UUID.
+     */
+    @Contract(pure = true)
+    public static boolean isValid(@NotNull CharSequence uuid) {
+        int length = uuid.length();
+        if (length != DASHLESS_LENGTH && length != DASHED_LENGTH) return false;
+        for (int i = 0; i < length; i++) {
+            char c = uuid.charAt(i);
+            if (length == DASHED_LENGTH && (i == 8 || i == 13 || i == 18 || i == 23)) {
+                if (c != '-') return false;
+            } else if (c >= 128 || VALUES[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkDashes(@NotNull CharSequence uuid) {
+        if (uuid.length() != DASHED_LENGTH || uuid.charAt(8) != '-' || uuid.charAt(13) != '-'
+                || uuid.charAt(18) != '-' || uuid.charAt(23) != '-') {
+            throw new IllegalArgumentException("Invalid UUID: " + uuid);
+        }
+    }
+
+    private static long parseHex(@NotNull CharSequence uuid, int offset, int digits) {
+        long value = 0;
+        for (int i = offset; i < offset + digits; i++) {
+            char c = uuid.charAt(i);
+            int digit = c < 128 ? VALUES[c] : -1;
+            if (digit < 0) throw new IllegalArgumentException("Invalid UUID: " + uuid);
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+}
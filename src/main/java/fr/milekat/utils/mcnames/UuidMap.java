@@ -0,0 +1,284 @@
+package fr.milekat.utils.mcnames;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Map keyed by UUIDs, stored as their two {@code long}s in open-addressing tables,
+ * for per-player data looked up on every event.
+ *
+ * <p>Lookups by the two {@code long}s of a UUID, or by its string with {@link UuidCodec}, allocate no {@link UUID}
+ * and no map entry. Slots are probed linearly, and removals shift the following entries back, so there are no
+ * tombstones. The tables double once they are 3/4 full.
+ *
+ * <p>This map is not thread-safe.
+ *
+ * @param <V> The type of the values.
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class UuidMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Called for each entry of the map.
+     *
+     * @param <V> The type of the values.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        /**
+         * @param mostBits  The most significant bits of the UUID.
+         * @param leastBits The least significant bits of the UUID.
+         * @param value     The value.
+         */
+        void accept(long mostBits, long leastBits, @NotNull V value);
+    }
+
+    private long[] mostKeys;
+    private long[] leastKeys;
+    /** Value of each slot, null for free slots */
+    private Object[] values;
+    private int size;
+
+    /**
+     * Creates an empty map.
+     */
+    public UuidMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map, sized for a number of entries.
+     *
+     * @param expectedSize The number of entries the map should hold without growing.
+     */
+    public UuidMap(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size must not be negative: " + expectedSize);
+        allocate(Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 4 / 3)) << 1));
+    }
+
+    private void allocate(int capacity) {
+        mostKeys = new long[capacity];
+        leastKeys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    private static int hash(long mostBits, long leastBits) {
+        long hash = mostBits * 31 + leastBits;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    /**
+     * Finds the slot of a UUID.
+     *
+     * @return The slot holding the UUID, or the free slot where it would be inserted.
+     */
+    private int slot(long mostBits, long leastBits) {
+        int mask = values.length - 1;
+        for (int slot = hash(mostBits, leastBits) & mask; ; slot = (slot + 1) & mask) {
+            if (values[slot] == null || (mostKeys[slot] == mostBits && leastKeys[slot] == leastBits)) return slot;
+        }
+    }
+
+    /**
+     * Gets the value of a UUID.
+     *
+     * @param mostBits  The most significant bits of the UUID.
+     * @param leastBits The least significant bits of the UUID.
+     * @return The value, or null if the UUID has none.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(long mostBits, long leastBits) {
+        return (V) values[slot(mostBits, leastBits)];
+    }
+
+    /**
+     * Gets the value of a UUID.
+     *
+     * @param uuid The UUID.
+     * @return The value, or null if the UUID has none.
+     */
+    public @Nullable V get(@NotNull UUID uuid) {
+        return get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Gets the value of a UUID.
+     *
+     * @param uuid The UUID, with or without dashes.
+     * @return The value, or null if the UUID has none.
+     * @throws IllegalArgumentException If the UUID is not valid.
+     */
+    public @Nullable V get(@NotNull CharSequence uuid) {
+        return get(UuidCodec.parseMostBits(uuid), UuidCodec.parseLeastBits(uuid));
+    }
+
+    /**
+     * Checks if a UUID has a value.
+     *
+     * @param mostBits  The most significant bits of the UUID.
+     * @param leastBits The least significant bits of the UUID.
+     * @return true if the UUID has a value.
+     */
+    public boolean containsKey(long mostBits, long leastBits) {
+        return values[slot(mostBits, leastBits)] != null;
+    }
+
+    /**
+     * Checks if a UUID has a value.
+     *
+     * @param uuid The UUID.
+     * @return true if the UUID has a value.
+     */
+    public boolean containsKey(@NotNull UUID uuid) {
+        return containsKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Sets the value of a UUID.
+     *
+     * @param mostBits  The most significant bits of the UUID.
+     * @param leastBits The least significant bits of the UUID.
+     * @param value     The value.
+     * @return The previous value, or null if the UUID had none.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V put(long mostBits, long leastBits, @NotNull V value) {
+        int slot = slot(mostBits, leastBits);
+        V previous = (V) values[slot];
+        if (previous == null) {
+            if ((size + 1) * 4 > values.length * 3) {
+                resize(values.length * 2);
+                slot = slot(mostBits, leastBits);
+            }
+            mostKeys[slot] = mostBits;
+            leastKeys[slot] = leastBits;
+            size++;
+        }
+        values[slot] = value;
+        return previous;
+    }
+
+    /**
+     * Sets the value of a UUID.
+     *
+     * @param uuid  The UUID.
+     * @param value The value.
+     * @return The previous value, or null if the UUID had none.
+     */
+    public @Nullable V put(@NotNull UUID uuid, @NotNull V value) {
+        return put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+    }
+
+    /**
+     * Sets the value of a UUID.
+     *
+     * @param uuid  The UUID, with or without dashes.
+     * @param value The value.
+     * @return The previous value, or null if the UUID had none.
+     * @throws IllegalArgumentException If the UUID is not valid.
+     */
+    public @Nullable V put(@NotNull CharSequence uuid, @NotNull V value) {
+        return put(UuidCodec.parseMostBits(uuid), UuidCodec.parseLeastBits(uuid), value);
+    }
+
+    /**
+     * Removes the value of a UUID.
+     *
+     * @param mostBits  The most significant bits of the UUID.
+     * @param leastBits The least significant bits of the UUID.
+     * @return The removed value, or null if the UUID had none.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(long mostBits, long leastBits) {
+        int slot = slot(mostBits, leastBits);
+        V previous = (V) values[slot];
+        if (previous == null) return null;
+        //  Shift back the following entries that can't be reached anymore past the freed slot
+        int mask = values.length - 1;
+        int free = slot;
+        for (int next = (free + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = hash(mostKeys[next], leastKeys[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                mostKeys[free] = mostKeys[next];
+                leastKeys[free] = leastKeys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        values[free] = null;
+        size--;
+        return previous;
+    }
+
+    /**
+     * Removes the value of a UUID.
+     *
+     * @param uuid The UUID.
+     * @return The removed value, or null if the UUID had none.
+     */
+    public @Nullable V remove(@NotNull UUID uuid) {
+        return remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    private void resize(int capacity) {
+        long[] oldMostKeys = mostKeys;
+        long[] oldLeastKeys = leastKeys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = slot(oldMostKeys[i], oldLeastKeys[i]);
+            mostKeys[slot] = oldMostKeys[i];
+            leastKeys[slot] = oldLeastKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Calls a consumer for each entry, in no particular order.
+     * <p>The map must not be modified by the consumer.</p>
+     *
+     * @param consumer The consumer.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(@NotNull EntryConsumer<? super V> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) consumer.accept(mostKeys[i], leastKeys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map has no entries.
+     *
+     * @return true if the map is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,48 @@
+package fr.milekat.utils.mcnames.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when the Mojang API answers a lookup with an unexpected HTTP status.
+ *
+ * <p>This exception is thrown when:
+ * <ul>
+ *   <li>The API rejected the request itself, such as a bulk request holding an invalid name (4xx)</li>
+ *   <li>The API is rate limiting us (429) or failing (5xx)</li>
+ * </ul>
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+public class MojangResponseException extends IOException {
+    private final int status;
+
+    /**
+     * Creates a new MojangResponseException.
+     *
+     * @param status  the HTTP status of the response
+     * @param message detailed description of the lookup
+     */
+    public MojangResponseException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * Gets the HTTP status of the response.
+     *
+     * @return The HTTP status.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if the API rejected the content of the request, so that sending it again as is would fail again.
+     *
+     * @return true for a 4xx status other than 429 (too many requests).
+     */
+    public boolean isRequestRejected() {
+        return status >= 400 && status < 500 && status != 429;
+    }
+}
@@ -0,0 +1,51 @@
+package fr.milekat.utils.mcnames.exceptions;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when a lookup is not sent to the Mojang API, to protect it or to fail fast.
+ *
+ * <p>This exception is thrown when:
+ * <ul>
+ *   <li>The rate limiter of the resolver has no request left</li>
+ *   <li>The circuit breaker of the resolver is open, after too many failed requests</li>
+ * </ul>
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+public class MojangUnavailableException extends IOException {
+    /**
+     * Why a lookup was not sent.
+     */
+    public enum Reason {
+        /** The rate limiter had no request left */
+        THROTTLED,
+        /** The circuit breaker was open */
+        CIRCUIT_OPEN
+    }
+
+    private final Reason reason;
+
+    /**
+     * Creates a new MojangUnavailableException.
+     *
+     * @param reason  why the lookup was not sent
+     * @param message detailed description of the lookup
+     */
+    public MojangUnavailableException(@NotNull Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Gets why the lookup was not sent.
+     *
+     * @return The reason.
+     */
+    public @NotNull Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,128 @@
+package fr.milekat.utils.mctools;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Translates {@code &} colour codes into Minecraft {@code §} codes.
+ *
+ * <p>Supported codes are the legacy codes ({@code &a}, {@code &l}, {@code &r}...), the {@code &x&R&R&G&G&B&B}
+ * hex format, and the {@code &#RRGGBB} hex format, which is expanded to {@code §x§R§R§G§G§B§B}.
+ * Codes are looked up in a 128 entries table and text is built in a per-thread buffer,
+ * so a translation only allocates its result, and nothing at all for text without any {@code &}.
+ *
+ * <p>A translator can also cache its results, for messages translated over and over such as scoreboard lines.
+ * The cache is cleared once it is full, so text built from variables does not make it grow forever.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class ColorTranslator {
+    /** The Minecraft colour char */
+    public static final char COLOR_CHAR = '§';
+    /** Translator without cache */
+    public static final ColorTranslator DEFAULT = new ColorTranslator(0);
+
+    /** Lowercase code of each ASCII char that is a valid code, 0 for the others */
+    private static final char[] CODES = new char[128];
+    /** Buffers larger than this are not kept for the next translation */
+    private static final int MAX_KEPT_CAPACITY = 8192;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    static {
+        for (char c : "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx".toCharArray()) CODES[c] = Character.toLowerCase(c);
+    }
+
+    private final int cacheSize;
+    private final ConcurrentMap<String, String> cache;
+
+    /**
+     * Creates a translator.
+     *
+     * @param cacheSize The maximum number of cached translations, 0 to disable the cache.
+     */
+    public ColorTranslator(int cacheSize) {
+        if (cacheSize < 0) throw new IllegalArgumentException("Cache size must not be negative: " + cacheSize);
+        this.cacheSize = cacheSize;
+        this.cache = cacheSize > 0 ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Translates the colour codes of a text.
+     *
+     * @param text The text to translate.
+     * @return The translated text, the same instance if there is nothing to translate.
+     */
+    public @NotNull String translate(@NotNull String text) {
+        if (text.indexOf('&') < 0) return text;
+        if (cache == null) return translateUncached(text);
+        String translated = cache.get(text);
+        if (translated != null) return translated;
+        translated = translateUncached(text);
+        if (cache.size() >= cacheSize) cache.clear();
+        cache.put(text, translated);
+        return translated;
+    }
+
+    private static @NotNull String translateUncached(@NotNull String text) {
+        StringBuilder builder = BUFFER.get();
+        builder.setLength(0);
+        String translated = appendTo(builder, text).toString();
+        if (builder.capacity() > MAX_KEPT_CAPACITY) BUFFER.set(new StringBuilder(256));
+        return translated;
+    }
+
+    /**
+     * Translates the colour codes of a text at the end of a builder.
+     *
+     * @param builder The builder to append to.
+     * @param text    The text to translate.
+     * @return The builder.
+     */
+    @Contract("_, _ -> param1")
+    public static @NotNull StringBuilder appendTo(@NotNull StringBuilder builder, @NotNull CharSequence text) {
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length - 1; i++) {
+            if (text.charAt(i) != '&') continue;
+            char next = text.charAt(i + 1);
+            if (next == '#' && i + 7 < length && isHex(text, i + 2)) {
+                builder.append(text, start, i).append(COLOR_CHAR).append('x');
+                for (int j = i + 2; j < i + 8; j++) {
+                    builder.append(COLOR_CHAR).append(Character.toLowerCase(text.charAt(j)));
+                }
+                i += 7;
+                start = i + 1;
+            } else if (next < 128 && CODES[next] != 0) {
+                builder.append(text, start, i).append(COLOR_CHAR).append(CODES[next]);
+                i++;
+                start = i + 1;
+            }
+        }
+        return builder.append(text, start, length);
+    }
+
+    /**
+     * Checks if the 6 chars from an index are hex digits.
+     */
+    private static boolean isHex(@NotNull CharSequence text, int index) {
+        for (int i = index; i < index + 6; i++) {
+            char c = text.charAt(i);
+            if (Character.digit(c, 16) < 0 || c >= 128) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of cached translations.
+     *
+     * @return The number of translations, always 0 if the cache is disabled.
+     */
+    public int getCacheSize() {
+        return cache != null ? cache.size() : 0;
+    }
+}
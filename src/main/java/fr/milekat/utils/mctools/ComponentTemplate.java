@@ -0,0 +1,255 @@
+package fr.milekat.utils.mctools;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON chat component compiled once from colour coded text, for titles, boss bars or tellraw.
+ *
+ * <p>Legacy codes ({@code &a}, {@code &l}...) and hex colours ({@code &#RRGGBB}, {@code &x&R&R&G&G&B&B}),
+ * written with {@code &} or {@code §}, are turned into the styles of the text parts of the component:
+ * <pre>{@code
+ * ComponentTemplate title = ComponentTemplate.compile("&6Welcome &e&l{player}");
+ * String json = title.render("player", player.getName());
+ * //  {"text":"","extra":[{"text":"Welcome ","color":"gold"},{"text":"Notch","color":"yellow","bold":true}]}
+ * }</pre>
+ *
+ * <p>The component is serialized when it is compiled, with {@code {placeholder}} slots left in its text parts,
+ * so rendering only appends the serialized segments and the JSON-escaped values.
+ * As in Minecraft, a colour code resets the formats ({@code &l}, {@code &o}...), and {@code &r} resets everything.
+ * Placeholder values are plain text: colour codes are not translated in them.
+ * A placeholder without a value is rendered as written ({@code {name}}). Templates are immutable.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class ComponentTemplate {
+    private static final String[] COLORS = {"black", "dark_blue", "dark_green", "dark_aqua", "dark_red",
+            "dark_purple", "gold", "gray", "dark_gray", "blue", "green", "aqua", "red", "light_purple", "yellow", "white"};
+
+    /** Serialized component, split at its placeholders */
+    private final PlaceholderText json;
+
+    private ComponentTemplate(@NotNull PlaceholderText json) {
+        this.json = json;
+    }
+
+    /**
+     * Compiles colour coded text into a JSON component.
+     *
+     * @param text The text, with {@code &} or {@code §} colour codes and {@code {name}} placeholders.
+     * @return The compiled component.
+     */
+    @Contract("_ -> new")
+    public static @NotNull ComponentTemplate compile(@NotNull String text) {
+        return new Compiler(ColorTranslator.DEFAULT.translate(text)).compile();
+    }
+
+    /**
+     * Serializes the text parts of a component while reading its colour codes.
+     */
+    private static final class Compiler {
+        private final String text;
+        private final PlaceholderText.Builder builder = new PlaceholderText.Builder();
+        private final StringBuilder segment = builder.segment();
+        private final StringBuilder run = new StringBuilder();
+        private boolean hasParts;
+        private String color;
+        private boolean obfuscated, bold, strikethrough, underlined, italic;
+
+        private Compiler(@NotNull String text) {
+            this.text = text;
+        }
+
+        private @NotNull ComponentTemplate compile() {
+            segment.append("{\"text\":\"\",\"extra\":[");
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c != ColorTranslator.COLOR_CHAR || i + 1 >= length) {
+                    run.append(c);
+                    continue;
+                }
+                char code = Character.toLowerCase(text.charAt(i + 1));
+                if (code == 'x' && isHexColor(i)) {
+                    flush();
+                    StringBuilder hex = new StringBuilder(7).append('#');
+                    for (int j = i + 3; j < i + 14; j += 2) hex.append(Character.toLowerCase(text.charAt(j)));
+                    resetFormats(hex.toString());
+                    i += 13;
+                } else if (Character.digit(code, 16) >= 0) {
+                    flush();
+                    resetFormats(COLORS[Character.digit(code, 16)]);
+                    i++;
+                } else if (code >= 'k' && code <= 'o') {
+                    flush();
+                    switch (code) {
+                        case 'k' -> obfuscated = true;
+                        case 'l' -> bold = true;
+                        case 'm' -> strikethrough = true;
+                        case 'n' -> underlined = true;
+                        default -> italic = true;
+                    }
+                    i++;
+                } else if (code == 'r') {
+                    flush();
+                    resetFormats(null);
+                    i++;
+                } else {
+                    run.append(c);
+                }
+            }
+            flush();
+            if (!hasParts) {
+                segment.setLength(0);
+                segment.append("{\"text\":\"\"}");
+            } else {
+                segment.append("]}");
+            }
+            return new ComponentTemplate(builder.build(ComponentTemplate::escapeValue));
+        }
+
+        /**
+         * Checks if a {@code §x§R§R§G§G§B§B} hex colour starts at an index.
+         */
+        private boolean isHexColor(int index) {
+            if (index + 13 >= text.length()) return false;
+            for (int i = index + 2; i < index + 14; i += 2) {
+                if (text.charAt(i) != ColorTranslator.COLOR_CHAR || Character.digit(text.charAt(i + 1), 16) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void resetFormats(@Nullable String newColor) {
+            color = newColor;
+            obfuscated = bold = strikethrough = underlined = italic = false;
+        }
+
+        /**
+         * Serializes the text read since the last style change, splitting it at its placeholders.
+         */
+        private void flush() {
+            if (run.length() == 0) return;
+            if (hasParts) segment.append(',');
+            hasParts = true;
+            segment.append("{\"text\":\"");
+            builder.split(run, 0, run.length(), ComponentTemplate::escape);
+            segment.append('"');
+            if (color != null) segment.append(",\"color\":\"").append(color).append('"');
+            if (bold) segment.append(",\"bold\":true");
+            if (italic) segment.append(",\"italic\":true");
+            if (underlined) segment.append(",\"underlined\":true");
+            if (strikethrough) segment.append(",\"strikethrough\":true");
+            if (obfuscated) segment.append(",\"obfuscated\":true");
+            segment.append('}');
+            run.setLength(0);
+        }
+    }
+
+    /**
+     * Appends text escaped for a JSON string.
+     */
+    private static void escape(@NotNull StringBuilder out, @NotNull CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends a placeholder value escaped for a JSON string.
+     */
+    private static void escapeValue(@NotNull StringBuilder out, @Nullable Object value) {
+        String string = String.valueOf(value);
+        escape(out, string, 0, string.length());
+    }
+
+    /**
+     * Gets the serialized component, with its placeholders left as written.
+     *
+     * @return The JSON component.
+     */
+    public @NotNull String getJson() {
+        return json.getText();
+    }
+
+    /**
+     * Gets the placeholder names of this component.
+     *
+     * @return The names, in order of appearance, without braces.
+     */
+    public @NotNull List<String> getPlaceholders() {
+        return json.getPlaceholders();
+    }
+
+    /**
+     * Checks if this component has placeholders.
+     *
+     * @return true if the component contains at least one placeholder.
+     */
+    public boolean hasPlaceholders() {
+        return json.hasPlaceholders();
+    }
+
+    /**
+     * Renders this component.
+     *
+     * @param values The placeholder values, by name.
+     * @return The JSON component.
+     */
+    public @NotNull String render(@NotNull Map<String, ?> values) {
+        return json.render(values);
+    }
+
+    /**
+     * Renders this component.
+     *
+     * @param keyValues The placeholder names and values, alternated: {@code "player", name, "count", 3}.
+     * @return The JSON component.
+     */
+    public @NotNull String render(@Nullable Object @NotNull ... keyValues) {
+        return json.render(keyValues);
+    }
+
+    /**
+     * Renders this component at the end of a builder.
+     *
+     * @param out    The builder to append to.
+     * @param values The placeholder values, by name.
+     * @return The builder.
+     */
+    public @NotNull StringBuilder appendTo(@NotNull StringBuilder out, @NotNull Map<String, ?> values) {
+        return json.appendTo(out, values);
+    }
+
+    /**
+     * Renders this component at the end of a builder.
+     *
+     * @param out       The builder to append to.
+     * @param keyValues The placeholder names and values, alternated: {@code "player", name, "count", 3}.
+     * @return The builder.
+     */
+    public @NotNull StringBuilder appendTo(@NotNull StringBuilder out, @Nullable Object @NotNull ... keyValues) {
+        return json.appendTo(out, keyValues);
+    }
+}
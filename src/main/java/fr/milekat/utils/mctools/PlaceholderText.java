@@ -0,0 +1,300 @@
+package fr.milekat.utils.mctools;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text split once at its {@code {placeholder}} positions into literal segments, so rendering is only a series of
+ * appends. This is the common part of {@link ComponentTemplate} and
+ * {@link fr.milekat.utils.configs.MessageTemplate}, which write their literals and values in their own format.
+ *
+ * <p>A placeholder name is made of letters, digits, {@code _}, {@code -} and {@code .}; other braces are literal.
+ * A placeholder without a value is rendered as written ({@code {name}}).
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class PlaceholderText {
+    /** Rendering buffer reused by each thread, dropped if a very long text made it grow too much */
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final int MAX_BUFFER_CAPACITY = 8192;
+
+    /**
+     * Writes a part of the source text into a literal segment.
+     */
+    @FunctionalInterface
+    public interface TextWriter {
+        /**
+         * @param out   The segment to append to.
+         * @param text  The source text.
+         * @param start The start of the part, inclusive.
+         * @param end   The end of the part, exclusive.
+         */
+        void write(@NotNull StringBuilder out, @NotNull CharSequence text, int start, int end);
+    }
+
+    /**
+     * Writes a placeholder value into the rendered text.
+     */
+    @FunctionalInterface
+    public interface ValueWriter {
+        /**
+         * @param out   The builder to append to.
+         * @param value The value, possibly null.
+         */
+        void write(@NotNull StringBuilder out, @Nullable Object value);
+    }
+
+    /** Full text, placeholders included */
+    private final String text;
+
+    /** Literal segments, one more than there are placeholders */
+    private final String[] literals;
+
+    /** Placeholder names, in order of appearance (without braces) */
+    private final String[] placeholders;
+
+    private final ValueWriter valueWriter;
+
+    private PlaceholderText(String @NotNull [] literals, String @NotNull [] placeholders,
+                            @NotNull ValueWriter valueWriter) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < placeholders.length; i++) {
+            text.append(literals[i]).append('{').append(placeholders[i]).append('}');
+        }
+        this.text = text.append(literals[placeholders.length]).toString();
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.valueWriter = valueWriter;
+    }
+
+    /**
+     * Splits a text at its placeholders, keeping its literals and values as they are.
+     *
+     * @param text The text, with {@code {name}} placeholders.
+     * @return The split text.
+     */
+    @Contract("_ -> new")
+    public static @NotNull PlaceholderText split(@NotNull String text) {
+        return new Builder().split(text, 0, text.length(), StringBuilder::append).build(StringBuilder::append);
+    }
+
+    /**
+     * Builds literal segments, split at the placeholders of the text given to {@link #split}.
+     * <p>Text written directly into {@link #segment()} is kept as is, even if it contains braces.</p>
+     */
+    public static final class Builder {
+        private final StringBuilder segment = new StringBuilder();
+        private final List<String> literals = new ArrayList<>();
+        private final List<String> placeholders = new ArrayList<>();
+
+        /**
+         * Gets the literal segment being built, which ends at the next placeholder.
+         *
+         * @return The current segment.
+         */
+        public @NotNull StringBuilder segment() {
+            return segment;
+        }
+
+        /**
+         * Appends a part of a text, ending the current segment at each of its placeholders.
+         *
+         * @param text          The text, with {@code {name}} placeholders.
+         * @param start         The start of the part, inclusive.
+         * @param end           The end of the part, exclusive.
+         * @param literalWriter Writes the text found between placeholders into the segments.
+         * @return This builder.
+         */
+        @Contract("_, _, _, _ -> this")
+        public @NotNull Builder split(@NotNull CharSequence text, int start, int end,
+                                      @NotNull TextWriter literalWriter) {
+            int literalStart = start;
+            int open = indexOf(text, '{', start, end);
+            while (open >= 0) {
+                int close = indexOf(text, '}', open + 1, end);
+                if (close < 0) break;
+                if (isPlaceholderName(text, open + 1, close)) {
+                    literalWriter.write(segment, text, literalStart, open);
+                    placeholder(text.subSequence(open + 1, close).toString());
+                    literalStart = close + 1;
+                    open = indexOf(text, '{', literalStart, end);
+                } else {
+                    open = indexOf(text, '{', open + 1, end);
+                }
+            }
+            literalWriter.write(segment, text, literalStart, end);
+            return this;
+        }
+
+        /**
+         * Ends the current segment with a placeholder.
+         *
+         * @param name The placeholder name, without braces.
+         * @return This builder.
+         */
+        @Contract("_ -> this")
+        public @NotNull Builder placeholder(@NotNull String name) {
+            literals.add(segment.toString());
+            segment.setLength(0);
+            placeholders.add(name);
+            return this;
+        }
+
+        /**
+         * Ends the last segment and builds the text.
+         *
+         * @param valueWriter Writes the placeholder values when rendering.
+         * @return The split text.
+         */
+        @Contract("_ -> new")
+        public @NotNull PlaceholderText build(@NotNull ValueWriter valueWriter) {
+            List<String> allLiterals = new ArrayList<>(literals);
+            allLiterals.add(segment.toString());
+            return new PlaceholderText(allLiterals.toArray(new String[0]), placeholders.toArray(new String[0]),
+                    valueWriter);
+        }
+    }
+
+    private static int indexOf(@NotNull CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isPlaceholderName(@NotNull CharSequence text, int start, int end) {
+        if (start == end) return false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the text, with its placeholders left as written.
+     *
+     * @return The text.
+     */
+    public @NotNull String getText() {
+        return text;
+    }
+
+    /**
+     * Gets the placeholder names.
+     *
+     * @return The names, in order of appearance, without braces.
+     */
+    public @NotNull List<String> getPlaceholders() {
+        return Collections.unmodifiableList(Arrays.asList(placeholders));
+    }
+
+    /**
+     * Checks if the text has placeholders.
+     *
+     * @return true if the text contains at least one placeholder.
+     */
+    public boolean hasPlaceholders() {
+        return placeholders.length > 0;
+    }
+
+    /**
+     * Renders the text.
+     *
+     * @param values The placeholder values, by name.
+     * @return The rendered text.
+     */
+    public @NotNull String render(@NotNull Map<String, ?> values) {
+        if (placeholders.length == 0) return text;
+        StringBuilder buffer = buffer();
+        appendTo(buffer, values);
+        return release(buffer);
+    }
+
+    /**
+     * Renders the text.
+     *
+     * @param keyValues The placeholder names and values, alternated: {@code "player", name, "count", 3}.
+     * @return The rendered text.
+     */
+    public @NotNull String render(@Nullable Object @NotNull ... keyValues) {
+        if (placeholders.length == 0) return text;
+        StringBuilder buffer = buffer();
+        appendTo(buffer, keyValues);
+        return release(buffer);
+    }
+
+    /**
+     * Renders the text at the end of a builder.
+     *
+     * @param out    The builder to append to.
+     * @param values The placeholder values, by name.
+     * @return The builder.
+     */
+    public @NotNull StringBuilder appendTo(@NotNull StringBuilder out, @NotNull Map<String, ?> values) {
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            Object value = values.get(placeholders[i]);
+            if (value != null || values.containsKey(placeholders[i])) {
+                valueWriter.write(out, value);
+            } else {
+                out.append('{').append(placeholders[i]).append('}');
+            }
+        }
+        return out.append(literals[placeholders.length]);
+    }
+
+    /**
+     * Renders the text at the end of a builder.
+     *
+     * @param out       The builder to append to.
+     * @param keyValues The placeholder names and values, alternated: {@code "player", name, "count", 3}.
+     * @return The builder.
+     */
+    public @NotNull StringBuilder appendTo(@NotNull StringBuilder out, @Nullable Object @NotNull ... keyValues) {
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            int valueIndex = indexOfValue(placeholders[i], keyValues);
+            if (valueIndex >= 0) {
+                valueWriter.write(out, keyValues[valueIndex]);
+            } else {
+                out.append('{').append(placeholders[i]).append('}');
+            }
+        }
+        return out.append(literals[placeholders.length]);
+    }
+
+    private static int indexOfValue(@NotNull String name, @Nullable Object @NotNull [] keyValues) {
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            if (name.equals(keyValues[i])) return i + 1;
+        }
+        return -1;
+    }
+
+    private static @NotNull StringBuilder buffer() {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    private static @NotNull String release(@NotNull StringBuilder buffer) {
+        String rendered = buffer.toString();
+        if (buffer.capacity() > MAX_BUFFER_CAPACITY) BUFFER.remove();
+        return rendered;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
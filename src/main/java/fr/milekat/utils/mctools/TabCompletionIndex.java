@@ -0,0 +1,204 @@
+package fr.milekat.utils.mctools;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sorted index of tab completion candidates, such as online player names or item ids.
+ *
+ * <p>Candidates are lowercased once, when they are added, and kept sorted, so completing a prefix is a binary search
+ * followed by a scan of the matching candidates only. Matching ignores case, and results keep the original case.
+ *
+ * <p>Completions read an immutable snapshot, so they never block and can run on any thread.
+ * Updates copy the arrays of the index: they cost O(n), which is fine for players joining or quitting,
+ * but candidates loaded in bulk should be added with {@link #addAll(Collection)}.
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class TabCompletionIndex {
+    /** Candidates sorted by lowercase key, then by original value */
+    private record Snapshot(String @NotNull [] keys, String @NotNull [] values) {}
+
+    private static final Snapshot EMPTY = new Snapshot(new String[0], new String[0]);
+
+    private volatile Snapshot snapshot = EMPTY;
+
+    /**
+     * Creates an empty index.
+     */
+    public TabCompletionIndex() {}
+
+    /**
+     * Creates an index holding candidates.
+     *
+     * @param candidates The candidates.
+     */
+    public TabCompletionIndex(@NotNull Collection<String> candidates) {
+        addAll(candidates);
+    }
+
+    private static @NotNull String key(@NotNull String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds a candidate in a snapshot.
+     *
+     * @return The index of the candidate, or {@code -(insertion point) - 1} if it is missing.
+     */
+    private static int search(@NotNull Snapshot snapshot, @NotNull String key, @NotNull String value) {
+        int low = 0;
+        int high = snapshot.keys.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compare = snapshot.keys[middle].compareTo(key);
+            if (compare == 0) compare = snapshot.values[middle].compareTo(value);
+            if (compare < 0) low = middle + 1;
+            else if (compare > 0) high = middle - 1;
+            else return middle;
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Adds a candidate.
+     *
+     * @param candidate The candidate.
+     * @return true if it was added, false if it was already in the index.
+     */
+    public synchronized boolean add(@NotNull String candidate) {
+        Snapshot current = snapshot;
+        String key = key(candidate);
+        int index = search(current, key, candidate);
+        if (index >= 0) return false;
+        int insertion = -index - 1;
+        int size = current.keys.length;
+        String[] keys = new String[size + 1];
+        String[] values = new String[size + 1];
+        System.arraycopy(current.keys, 0, keys, 0, insertion);
+        System.arraycopy(current.values, 0, values, 0, insertion);
+        keys[insertion] = key;
+        values[insertion] = candidate;
+        System.arraycopy(current.keys, insertion, keys, insertion + 1, size - insertion);
+        System.arraycopy(current.values, insertion, values, insertion + 1, size - insertion);
+        snapshot = new Snapshot(keys, values);
+        return true;
+    }
+
+    /**
+     * Adds many candidates, sorting the index once.
+     *
+     * @param candidates The candidates.
+     */
+    public synchronized void addAll(@NotNull Collection<String> candidates) {
+        Snapshot current = snapshot;
+        int size = current.keys.length;
+        String[][] entries = new String[size + candidates.size()][];
+        for (int i = 0; i < size; i++) entries[i] = new String[]{current.keys[i], current.values[i]};
+        int count = size;
+        for (String candidate : candidates) entries[count++] = new String[]{key(candidate), candidate};
+        Arrays.sort(entries, (first, second) -> {
+            int compare = first[0].compareTo(second[0]);
+            return compare != 0 ? compare : first[1].compareTo(second[1]);
+        });
+        String[] keys = new String[count];
+        String[] values = new String[count];
+        int unique = 0;
+        for (String[] entry : entries) {
+            if (unique > 0 && values[unique - 1].equals(entry[1])) continue;
+            keys[unique] = entry[0];
+            values[unique++] = entry[1];
+        }
+        snapshot = new Snapshot(Arrays.copyOf(keys, unique), Arrays.copyOf(values, unique));
+    }
+
+    /**
+     * Removes a candidate.
+     *
+     * @param candidate The candidate, with its original case.
+     * @return true if it was removed, false if it was not in the index.
+     */
+    public synchronized boolean remove(@NotNull String candidate) {
+        Snapshot current = snapshot;
+        int index = search(current, key(candidate), candidate);
+        if (index < 0) return false;
+        int size = current.keys.length;
+        String[] keys = new String[size - 1];
+        String[] values = new String[size - 1];
+        System.arraycopy(current.keys, 0, keys, 0, index);
+        System.arraycopy(current.values, 0, values, 0, index);
+        System.arraycopy(current.keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(current.values, index + 1, values, index, size - index - 1);
+        snapshot = new Snapshot(keys, values);
+        return true;
+    }
+
+    /**
+     * Removes every candidate.
+     */
+    public synchronized void clear() {
+        snapshot = EMPTY;
+    }
+
+    /**
+     * Checks if a candidate is in the index.
+     *
+     * @param candidate The candidate, with its original case.
+     * @return true if it is in the index.
+     */
+    public boolean contains(@NotNull String candidate) {
+        return search(snapshot, key(candidate), candidate) >= 0;
+    }
+
+    /**
+     * Gets the number of candidates.
+     *
+     * @return The number of candidates.
+     */
+    public int size() {
+        return snapshot.keys.length;
+    }
+
+    /**
+     * Completes a prefix.
+     *
+     * @param prefix The typed argument.
+     * @return The candidates starting with the prefix (ignoring case), sorted.
+     */
+    public @NotNull List<String> complete(@NotNull String prefix) {
+        return complete(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Completes a prefix, returning a limited number of candidates.
+     *
+     * @param prefix The typed argument.
+     * @param limit  The maximum number of candidates to return.
+     * @return The first candidates starting with the prefix (ignoring case), sorted.
+     */
+    public @NotNull List<String> complete(@NotNull String prefix, int limit) {
+        Snapshot current = snapshot;
+        String key = key(prefix);
+        String[] keys = current.keys;
+        //  First key greater than or equal to the prefix, the matching keys follow it
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0) low = middle + 1;
+            else high = middle;
+        }
+        int end = low;
+        while (end < keys.length && end - low < limit && keys[end].startsWith(key)) end++;
+        List<String> result = new ArrayList<>(end - low);
+        for (int i = low; i < end; i++) result.add(current.values[i]);
+        return result;
+    }
+}
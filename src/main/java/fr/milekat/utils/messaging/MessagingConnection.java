@@ -2,9 +2,9 @@ package fr.milekat.utils.messaging;
 
 import fr.milekat.utils.messaging.exceptions.MessagingLoadException;
 import fr.milekat.utils.messaging.exceptions.MessagingSendException;
+import fr.milekat.utils.tools.IdGenerator;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.UUID;
 import java.util.function.Consumer;
 
 @SuppressWarnings("unused")
@@ -72,7 +72,7 @@ public interface MessagingConnection {
     default String registerMessageProcessor(@NotNull String routingKey,
                                             @NotNull Consumer<ReceivedMessage> messageHandler)
             throws MessagingLoadException {
-        String processorName = UUID.randomUUID().toString();
+        String processorName = IdGenerator.fastUuid().toString();
         registerMessageProcessor(processorName, routingKey, messageHandler);
         return processorName;
     }
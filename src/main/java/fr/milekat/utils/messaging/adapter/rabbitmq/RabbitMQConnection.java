@@ -3,6 +3,7 @@ package fr.milekat.utils.messaging.adapter.rabbitmq;
 import com.rabbitmq.client.*;
 import fr.milekat.utils.Configs;
 import fr.milekat.utils.MileLogger;
+import fr.milekat.utils.configs.ConfigDefault;
 import fr.milekat.utils.messaging.MessagingChanel;
 import fr.milekat.utils.messaging.MessagingConnection;
 import fr.milekat.utils.messaging.MessagingVendor;
@@ -126,6 +127,17 @@ public class RabbitMQConnection implements MessagingConnection {
      */
     private volatile Connection connection;
 
+    /**
+     * "messaging.rabbitmq" section of the configuration, bound in a single pass.
+     */
+    private record RabbitMQSettings(String hostname,
+                                    @ConfigDefault("5672") int port,
+                                    @ConfigDefault("/") String vhost,
+                                    @ConfigDefault("null") String username,
+                                    @ConfigDefault("null") String password,
+                                    @ConfigDefault("milekat.exchange") String exchange,
+                                    @ConfigDefault("x-rtopic") String type) {}
+
     /**
      * Creates a new RabbitMQ connection with the provided configuration.
      *
@@ -155,11 +167,12 @@ public class RabbitMQConnection implements MessagingConnection {
         this.logger = logger;
 
         // Fetch connections vars from config.yml file
-        String host = config.getString("messaging.rabbitmq.hostname");
-        int port = config.getInt("messaging.rabbitmq.port", 5672);
-        String vhost = config.getString("messaging.rabbitmq.vhost", "/");
-        String username = config.getString("messaging.rabbitmq.username", "null");
-        String password = config.getString("messaging.rabbitmq.password", "null");
+        RabbitMQSettings settings = config.bind("messaging.rabbitmq", RabbitMQSettings.class);
+        String host = settings.hostname();
+        int port = settings.port();
+        String vhost = settings.vhost();
+        String username = settings.username();
+        String password = settings.password();
 
         // Debug hostname/port
         logger.debug("Hostname: " + host);
@@ -168,10 +181,7 @@ public class RabbitMQConnection implements MessagingConnection {
         logger.debug("Password: " + new String(new char[password.length()]).replace("\0", "*"));
 
         // Get RabbitMQ configuration from config.yml
-        this.rabbitMQConfig = new MessagingChanel(
-                config.getString("messaging.rabbitmq.exchange", "milekat.exchange"),
-                config.getString("messaging.rabbitmq.type", "x-rtopic")
-        );
+        this.rabbitMQConfig = new MessagingChanel(settings.exchange(), settings.type());
 
         // Init the connection factory
         this.connectionFactory = new ConnectionFactory();
@@ -20,8 +20,9 @@ public class DateDeserializer extends StdDeserializer<Date> {
     @Override
     public Date deserialize(@NotNull JsonParser p, DeserializationContext context) throws IOException {
         try {
-            if (p.getText() == null) return null;
-            return DateMileKat.getESStringDate(p.getText());
+            char[] text = p.getTextCharacters();
+            if (text == null) return null;
+            return new Date(DateMileKat.getESStringMillis(text, p.getTextOffset(), p.getTextLength()));
         } catch (ParseException e) {
             throw new IOException(e);
         }
@@ -1,6 +1,7 @@
 package fr.milekat.utils.storage.utils;
 
 import fr.milekat.utils.Configs;
+import fr.milekat.utils.configs.ConfigDefault;
 import fr.milekat.utils.storage.StorageVendor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -117,34 +118,62 @@ public record StorageConfig(@NotNull StorageVendor type, @NotNull String prefix,
      */
     public static @NotNull StorageConfig fromVendor(@NotNull StorageVendor vendor, @NotNull Configs configs) {
         return switch (vendor) {
-            case MYSQL, MARIADB, POSTGRESQL -> new StorageConfig(
-                    vendor,
-                    configs.getString("storage.sql.prefix", "minecraft_"),
-                    null,
-                    null,
-                    configs.getString("storage.sql.hostname", "localhost"),
-                    configs.getString("storage.sql.port", "3306"),
-                    configs.getString("storage.sql.username", "root"),
-                    configs.getString("storage.sql.password", ""),
-                    null,
-                    configs.getString("storage.sql.database", "minecraft"),
-                    null,
-                    new HashMap<>()
-            );
-            case ELASTICSEARCH -> new StorageConfig(
-                    vendor,
-                    configs.getString("storage.elasticsearch.prefix", "minecraft-"),
-                    configs.getString("storage.elasticsearch.scheme", "http"),
-                    configs.getString("storage.elasticsearch.sslFingerprint"),
-                    configs.getString("storage.elasticsearch.hostname", "localhost"),
-                    configs.getString("storage.elasticsearch.port", "9200"),
-                    configs.getString("storage.elasticsearch.username"),
-                    configs.getString("storage.elasticsearch.password"),
-                    configs.getString("storage.elasticsearch.apiKey"),
-                    null,
-                    null,
-                    new HashMap<>()
-            );
+            case MYSQL, MARIADB, POSTGRESQL -> {
+                SqlSection sql = configs.bind("storage.sql", SqlSection.class);
+                yield new StorageConfig(
+                        vendor,
+                        sql.prefix(),
+                        null,
+                        null,
+                        sql.hostname(),
+                        sql.port(),
+                        sql.username(),
+                        sql.password(),
+                        null,
+                        sql.database(),
+                        null,
+                        new HashMap<>()
+                );
+            }
+            case ELASTICSEARCH -> {
+                ElasticsearchSection elasticsearch = configs.bind("storage.elasticsearch", ElasticsearchSection.class);
+                yield new StorageConfig(
+                        vendor,
+                        elasticsearch.prefix(),
+                        elasticsearch.scheme(),
+                        elasticsearch.sslFingerprint(),
+                        elasticsearch.hostname(),
+                        elasticsearch.port(),
+                        elasticsearch.username(),
+                        elasticsearch.password(),
+                        elasticsearch.apiKey(),
+                        null,
+                        null,
+                        new HashMap<>()
+                );
+            }
         };
     }
+
+    /**
+     * "storage.sql" section of the configuration.
+     */
+    private record SqlSection(@ConfigDefault("minecraft_") String prefix,
+                              @ConfigDefault("localhost") String hostname,
+                              @ConfigDefault("3306") String port,
+                              @ConfigDefault("root") String username,
+                              String password,
+                              @ConfigDefault("minecraft") String database) {}
+
+    /**
+     * "storage.elasticsearch" section of the configuration.
+     */
+    private record ElasticsearchSection(@ConfigDefault("minecraft-") String prefix,
+                                        @ConfigDefault("http") String scheme,
+                                        String sslFingerprint,
+                                        @ConfigDefault("localhost") String hostname,
+                                        @ConfigDefault("9200") String port,
+                                        String username,
+                                        String password,
+                                        String apiKey) {}
 }
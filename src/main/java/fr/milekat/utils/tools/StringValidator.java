@@ -0,0 +1,226 @@
+package fr.milekat.utils.tools;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Checks that strings only hold allowed characters, using a precomputed table instead of a regex.
+ *
+ * <p>Allowed characters of the Basic Multilingual Plane are stored in a bit table, one bit per char,
+ * so checking a char is an array read and a mask. Other code points (emojis...) are stored in a {@link BitSet}.
+ * Scanning stops at the first rejected character. Validators are immutable and thread-safe:
+ * <pre>{@code
+ * StringValidator username = StringValidator.builder()
+ *         .letters().digits().chars("_")
+ *         .length(3, 16)
+ *         .build();
+ * if (!username.test(input)) ...
+ * }</pre>
+ *
+ * @author MileKat
+ * @since 1.10
+ */
+@SuppressWarnings("unused")
+public final class StringValidator {
+    /** Characters allowed by {@code Tools.isAlphaNumericExtended}: ASCII letters and digits, whitespace and {@code ()_éèêïç-} */
+    public static final StringValidator ALPHANUMERIC_EXTENDED = builder().letters().digits().whitespace()
+            .chars("()_éèêïç-").build();
+
+    /** Allowed chars of the Basic Multilingual Plane, one bit per char, up to the highest allowed char */
+    private final long[] table;
+    /** Allowed code points outside the Basic Multilingual Plane */
+    private final BitSet supplementary;
+    private final int minLength;
+    private final int maxLength;
+
+    private StringValidator(@NotNull Builder builder) {
+        BitSet bmp = builder.bmp;
+        this.table = bmp.isEmpty() ? new long[0] : bmp.toLongArray();
+        this.supplementary = (BitSet) builder.supplementary.clone();
+        this.minLength = builder.minLength;
+        this.maxLength = builder.maxLength;
+    }
+
+    /**
+     * Creates a builder of validators, allowing no character at first.
+     *
+     * @return The new builder.
+     */
+    @Contract(" -> new")
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Checks if a code point is allowed.
+     *
+     * @param codePoint The code point.
+     * @return true if the code point is allowed.
+     */
+    public boolean isAllowed(int codePoint) {
+        if (codePoint <= Character.MAX_VALUE) {
+            int word = codePoint >>> 6;
+            return word < table.length && (table[word] & (1L << codePoint)) != 0;
+        }
+        return supplementary.get(codePoint);
+    }
+
+    /**
+     * Checks if a string only holds allowed characters, and has an allowed length.
+     *
+     * @param value The string to check.
+     * @return true if the string is valid, false if it is not or if it is null.
+     */
+    public boolean test(@Nullable CharSequence value) {
+        return value != null && findInvalid(value) < 0;
+    }
+
+    /**
+     * Finds the first rejected character of a string.
+     *
+     * @param value The string to check.
+     * @return The index of the first rejected character, -1 if the string is valid,
+     * or the length of the string if its length is not allowed.
+     */
+    public int findInvalid(@NotNull CharSequence value) {
+        int length = value.length();
+        if (length < minLength || length > maxLength) return length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            int word = c >>> 6;
+            if (word < table.length && (table[word] & (1L << c)) != 0) continue;
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))
+                    && supplementary.get(Character.toCodePoint(c, value.charAt(i + 1)))) {
+                i++;
+                continue;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if every string of a collection is valid, stopping at the first invalid one.
+     *
+     * @param values The strings to check.
+     * @return true if all strings are valid (or if there is none).
+     */
+    public boolean validateAll(@NotNull Collection<? extends CharSequence> values) {
+        for (CharSequence value : values) {
+            if (!test(value)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Builder of {@link StringValidator}, each method adds allowed characters.
+     */
+    public static final class Builder {
+        private final BitSet bmp = new BitSet();
+        private final BitSet supplementary = new BitSet();
+        private int minLength = 0;
+        private int maxLength = Integer.MAX_VALUE;
+
+        private Builder() {}
+
+        /**
+         * Allows the ASCII letters, {@code a-z} and {@code A-Z}.
+         *
+         * @return This builder.
+         */
+        @Contract("-> this")
+        public @NotNull Builder letters() {
+            return range('a', 'z').range('A', 'Z');
+        }
+
+        /**
+         * Allows the ASCII digits, {@code 0-9}.
+         *
+         * @return This builder.
+         */
+        @Contract("-> this")
+        public @NotNull Builder digits() {
+            return range('0', '9');
+        }
+
+        /**
+         * Allows the ASCII whitespace, matched by {@code \s} in a regex: space, tab, line feed,
+         * vertical tab, form feed and carriage return.
+         *
+         * @return This builder.
+         */
+        @Contract("-> this")
+        public @NotNull Builder whitespace() {
+            return chars(" \t\n\u000B\f\r");
+        }
+
+        /**
+         * Allows every character (code point) of a string.
+         *
+         * @param chars The characters to allow.
+         * @return This builder.
+         */
+        @Contract("_ -> this")
+        public @NotNull Builder chars(@NotNull String chars) {
+            chars.codePoints().forEach(this::codePoint);
+            return this;
+        }
+
+        /**
+         * Allows a code point.
+         *
+         * @param codePoint The code point to allow.
+         * @return This builder.
+         */
+        @Contract("_ -> this")
+        public @NotNull Builder codePoint(int codePoint) {
+            return range(codePoint, codePoint);
+        }
+
+        /**
+         * Allows a range of code points.
+         *
+         * @param first The first code point to allow.
+         * @param last  The last code point to allow (inclusive).
+         * @return This builder.
+         */
+        @Contract("_, _ -> this")
+        public @NotNull Builder range(int first, int last) {
+            if (first < 0 || last > Character.MAX_CODE_POINT || first > last) {
+                throw new IllegalArgumentException("Invalid code point range: " + first + "-" + last);
+            }
+            if (first <= Character.MAX_VALUE) bmp.set(first, Math.min(last, Character.MAX_VALUE) + 1);
+            if (last > Character.MAX_VALUE) supplementary.set(Math.max(first, Character.MAX_VALUE + 1), last + 1);
+            return this;
+        }
+
+        /**
+         * Restricts the length of valid strings, counted in chars.
+         *
+         * @param min The minimum length.
+         * @param max The maximum length (inclusive).
+         * @return This builder.
+         */
+        @Contract("_, _ -> this")
+        public @NotNull Builder length(int min, int max) {
+            if (min < 0 || min > max) throw new IllegalArgumentException("Invalid length range: " + min + "-" + max);
+            this.minLength = min;
+            this.maxLength = max;
+            return this;
+        }
+
+        /**
+         * Builds the validator, the builder can still be used afterward.
+         *
+         * @return The new validator.
+         */
+        @Contract(" -> new")
+        public @NotNull StringValidator build() {
+            return new StringValidator(this);
+        }
+    }
+}
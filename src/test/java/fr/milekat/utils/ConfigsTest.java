@@ -1,20 +1,42 @@
 package fr.milekat.utils;
 
+import fr.milekat.utils.configs.ConfigBinaryCache;
+import fr.milekat.utils.configs.ConfigDefault;
+import fr.milekat.utils.configs.ConfigKey;
+import fr.milekat.utils.configs.ConfigSource;
+import fr.milekat.utils.configs.MessageTemplate;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 public class ConfigsTest {
     private Configs configs;
 
+    public enum Mode { FAST, SAFE }
+
+    public record Credentials(@ConfigDefault("root") String username, String password) {}
+
+    public record Settings(String hostname, @ConfigDefault("3306") int port, @ConfigDefault("true") boolean ssl,
+                           @ConfigDefault("safe") Mode mode, List<String> tags, Credentials credentials,
+                           Integer timeout) {}
+
     @BeforeEach
     public void setUp() {
         Path path = Paths.get("src", "test", "resources", "config.yml");
@@ -121,5 +143,238 @@ public class ConfigsTest {
         Object value = Configs.getNodeValue("foo.bar", config);
         Assertions.assertEquals("baz", value);
     }
-}
 
+    @Test
+    public void testSnapshotIsReused() {
+        Assertions.assertSame(configs.getSnapshot(), configs.getSnapshot());
+    }
+
+    @Test
+    public void testSnapshotReloadsOnChange(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("config.yml");
+        Files.writeString(file, "value: 1\n");
+        Configs tempConfigs = new Configs(file.toFile());
+        tempConfigs.setCheckInterval(0L);
+        Assertions.assertEquals(1, tempConfigs.getInt("value"));
+
+        Files.writeString(file, "value: 200\n");
+        Assertions.assertEquals(200, tempConfigs.getInt("value"));
+
+        //  A missing file keeps the loaded nodes
+        Files.delete(file);
+        Assertions.assertEquals(200, tempConfigs.getInt("value"));
+    }
+
+    @Test
+    public void testSnapshotChecksLayersOncePerInterval(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("config.yml");
+        Files.writeString(file, "value: 1\n");
+        Configs tempConfigs = new Configs(file.toFile());
+        tempConfigs.setCheckInterval(TimeUnit.HOURS.toMillis(1));
+        Assertions.assertEquals(1, tempConfigs.getInt("value"));
+
+        //  Same modification time, only the size changes
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        Files.writeString(file, "value: 200\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+        Assertions.assertEquals(1, tempConfigs.getInt("value"));
+        tempConfigs.setCheckInterval(0L);
+        Assertions.assertEquals(200, tempConfigs.getInt("value"));
+    }
+
+    @Test
+    public void testConfigKeys() {
+        ConfigKey<Integer> intKey = ConfigKey.ofInt("test.int", 0);
+        Assertions.assertEquals(123, configs.getInt(intKey));
+        Assertions.assertEquals(123, configs.getInt(intKey));
+        Assertions.assertEquals(1234567890123456789L, configs.getLong(ConfigKey.ofLong("test.long", 0L)));
+        Assertions.assertEquals(123.456, configs.getDouble(ConfigKey.ofDouble("test.double", 0D)));
+        Assertions.assertTrue(configs.getBoolean(ConfigKey.ofBoolean("test.boolean", false)));
+        Assertions.assertEquals("hello world", configs.getString(ConfigKey.ofString("test.string", "")));
+        Assertions.assertEquals(123, configs.get(intKey));
+    }
+
+    @Test
+    public void testConfigKeysDefaults() {
+        Assertions.assertEquals(42, configs.getInt(ConfigKey.ofInt("invalid.node", 42)));
+        Assertions.assertEquals(42, configs.getInt(ConfigKey.ofInt("test.string", 42)));
+        Assertions.assertFalse(configs.getBoolean(ConfigKey.ofBoolean("test.string", false)));
+        Assertions.assertEquals("default", configs.get(ConfigKey.ofString("invalid.node", "default")));
+    }
+
+    @Test
+    public void testLegacyConversions() {
+        Assertions.assertEquals(0, configs.getInt("test.string"));
+        Assertions.assertEquals(0, configs.getInt("test.long"));
+        Assertions.assertEquals(123L, configs.getLong("test.int"));
+        Assertions.assertEquals(123D, configs.getDouble("test.int"));
+        Assertions.assertEquals(false, configs.getBoolean("test.string"));
+        Assertions.assertNull(configs.getBoolean("invalid.node"));
+    }
+
+    @Test
+    public void testListenersOnReload(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("config.yml");
+        Files.writeString(file, "storage:\n  sql:\n    port: 3306\nmessaging:\n  type: redis\n");
+        Configs tempConfigs = new Configs(file.toFile());
+        tempConfigs.getSnapshot();
+        Set<String> storageChanges = new HashSet<>();
+        Set<String> messagingChanges = new HashSet<>();
+        tempConfigs.addListener("storage.sql.*", (snapshot, paths) -> storageChanges.addAll(paths));
+        tempConfigs.addListener("messaging", (snapshot, paths) -> messagingChanges.addAll(paths));
+
+        Files.writeString(file, "storage:\n  sql:\n    port: 3307\n    hostname: db\nmessaging:\n  type: redis\n");
+        tempConfigs.reload();
+        Assertions.assertEquals(Set.of("storage.sql.port", "storage.sql.hostname"), storageChanges);
+        Assertions.assertTrue(messagingChanges.isEmpty());
+    }
+
+    @Test
+    public void testHotReload(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("config.yml");
+        Files.writeString(file, "value: 1\n");
+        Configs tempConfigs = new Configs(file.toFile());
+        CompletableFuture<Set<String>> changed = new CompletableFuture<>();
+        tempConfigs.addListener("value", (snapshot, paths) -> changed.complete(paths));
+        tempConfigs.enableHotReload(50L);
+        try {
+            Assertions.assertEquals(1, tempConfigs.getInt("value"));
+            Files.writeString(file, "value: 2\n");
+            Assertions.assertEquals(Set.of("value"), changed.get(30, TimeUnit.SECONDS));
+            Assertions.assertEquals(2, tempConfigs.getInt("value"));
+        } finally {
+            tempConfigs.disableHotReload();
+        }
+    }
+
+    @Test
+    public void testHotReloadKeepsNodesWhileFileIsRewritten(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("config.yml");
+        Files.writeString(file, "value: 1\n");
+        Configs tempConfigs = new Configs(file.toFile());
+        List<String> notified = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> rewritten = new CompletableFuture<>();
+        tempConfigs.addListener("value", (snapshot, paths) -> {
+            notified.add(String.valueOf(snapshot.get("value")));
+            if (snapshot.get("value") != null) rewritten.complete(null);
+        });
+        tempConfigs.enableHotReload(50L);
+        try {
+            Files.delete(file);
+            tempConfigs.reload();
+            Assertions.assertEquals(1, tempConfigs.getInt("value"));
+            Thread.sleep(500L);
+            Files.writeString(file, "");
+            tempConfigs.reload();
+            Assertions.assertEquals(1, tempConfigs.getInt("value"));
+            Thread.sleep(500L);
+            Files.writeString(file, "value: 2\n");
+            rewritten.get(30, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, tempConfigs.getInt("value"));
+            Assertions.assertEquals(List.of("2"), notified);
+        } finally {
+            tempConfigs.disableHotReload();
+        }
+    }
+
+    @Test
+    public void testBind(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("config.yml");
+        Files.writeString(file, "storage:\n  sql:\n    hostname: db\n    port: 3307\n    mode: fast\n" +
+                "    tags: [a, 1]\n    credentials:\n      password: secret\n");
+        Configs tempConfigs = new Configs(file.toFile());
+        Settings settings = tempConfigs.bind("storage.sql", Settings.class);
+        Assertions.assertEquals(new Settings("db", 3307, true, Mode.FAST, List.of("a", "1"),
+                new Credentials("root", "secret"), null), settings);
+
+        Files.writeString(file, "storage:\n  sql:\n    port: invalid\n");
+        tempConfigs.reload();
+        Assertions.assertEquals(new Settings("", 3306, true, Mode.SAFE, List.of(),
+                new Credentials("root", ""), null), tempConfigs.bind("storage.sql", Settings.class));
+    }
+
+    @Test
+    public void testBindMissingSection() {
+        Assertions.assertEquals(new Credentials("root", ""), configs.bind("invalid.node", Credentials.class));
+    }
+
+    @Test
+    public void testMessageTemplate() {
+        MessageTemplate template = MessageTemplate.compile("&a{player} joined &7({count}/{max}) {not a placeholder}");
+        Assertions.assertEquals(Arrays.asList("player", "count", "max"), template.getPlaceholders());
+        Assertions.assertEquals("\u00A7aNotch joined \u00A77(3/{max}) {not a placeholder}",
+                template.render("player", "Notch", "count", 3));
+        Assertions.assertEquals("\u00A7a&cNotch joined \u00A77(3/20) {not a placeholder}",
+                template.render(Map.of("player", "&cNotch", "count", 3, "max", 20)));
+        Assertions.assertEquals("\u00A7a{player} joined \u00A77({count}/{max}) {not a placeholder}", template.getText());
+    }
+
+    @Test
+    public void testMessageTemplatesAreCached(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("config.yml");
+        Files.writeString(file, "join: \"&e{player} joined\"\n");
+        Configs tempConfigs = new Configs(file.toFile());
+        MessageTemplate template = tempConfigs.getMessageTemplate("join");
+        Assertions.assertSame(template, tempConfigs.getMessageTemplate("join"));
+        Assertions.assertEquals("\u00A7eNotch joined", template.render("player", "Notch"));
+
+        Files.writeString(file, "join: \"&b{player} is here\"\n");
+        tempConfigs.reload();
+        Assertions.assertEquals("\u00A7bNotch is here", tempConfigs.getMessageTemplate("join").render("player", "Notch"));
+        Assertions.assertSame(MessageTemplate.EMPTY, tempConfigs.getMessageTemplate("invalid.node"));
+    }
+
+    @Test
+    public void testBinaryCache(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("config.yml");
+        Files.writeString(file, "test:\n  string: hello\n  int: 5\n  list: [a, b]\n  big: 123456789012345678901234567890\n");
+        Configs cachedConfigs = new Configs(file.toFile(), true);
+        Assertions.assertEquals("hello", cachedConfigs.getString("test.string"));
+        Path cacheFile = ConfigBinaryCache.cacheFile(file.toFile());
+        Assertions.assertTrue(Files.exists(cacheFile));
+
+        byte[] digest = ConfigBinaryCache.digest(Files.readAllBytes(file));
+        Map<String, Object> cached = ConfigBinaryCache.read(cacheFile, digest);
+        Assertions.assertEquals(cachedConfigs.getSnapshot().getRoot(), cached);
+        byte[] otherDigest = digest.clone();
+        otherDigest[31] ^= 1;
+        Assertions.assertNull(ConfigBinaryCache.read(cacheFile, otherDigest));
+
+        //  A cache matching the content digest is used instead of the YAML file
+        ConfigBinaryCache.write(cacheFile, digest, Map.of("test", Map.of("string", "from cache")));
+        Assertions.assertEquals("from cache", new Configs(file.toFile(), true).getString("test.string"));
+        Assertions.assertEquals("hello", new Configs(file.toFile()).getString("test.string"));
+    }
+
+    @Test
+    public void testLayeredSources(@TempDir Path tempDir) throws IOException {
+        Path defaults = tempDir.resolve("defaults.yml");
+        Path overrides = tempDir.resolve("config.yml");
+        Files.writeString(defaults, "storage:\n  sql:\n    hostname: localhost\n    port: 3306\n" +
+                "    sslFingerprint: none\n  type: mysql\n");
+        Files.writeString(overrides, "storage:\n  sql:\n    port: 3307\n");
+        System.setProperty("milekat-test.storage.type", "postgresql");
+        try {
+            Configs layered = new Configs(List.of(
+                    ConfigSource.yaml(defaults.toFile()),
+                    ConfigSource.yaml(overrides.toFile()),
+                    ConfigSource.environment("MILEKAT_", Map.of(
+                            "MILEKAT_STORAGE_SQL_SSLFINGERPRINT", "ab:cd",
+                            "MILEKAT_STORAGE_SQL_SSL", "true",
+                            "OTHER_VARIABLE", "ignored")),
+                    ConfigSource.systemProperties("milekat-test.")));
+            layered.setCheckInterval(0L);
+            Assertions.assertEquals("localhost", layered.getString("storage.sql.hostname"));
+            Assertions.assertEquals(3307, layered.getInt("storage.sql.port"));
+            Assertions.assertEquals("ab:cd", layered.getString("storage.sql.sslFingerprint"));
+            Assertions.assertEquals(true, layered.getBoolean("storage.sql.ssl"));
+            Assertions.assertEquals("postgresql", layered.getString("storage.type"));
+
+            Files.writeString(overrides, "storage:\n  sql:\n    port: 3310\n    hostname: db\n");
+            Assertions.assertEquals(3310, layered.getInt("storage.sql.port"));
+            Assertions.assertEquals("db", layered.getString("storage.sql.hostname"));
+        } finally {
+            System.clearProperty("milekat-test.storage.type");
+        }
+    }
+}
@@ -1,12 +1,26 @@
 package fr.milekat.utils;
 
+import fr.milekat.utils.dates.CoarseClock;
+import fr.milekat.utils.dates.DateFormatterCache;
+import fr.milekat.utils.dates.EsDateCodec;
+import fr.milekat.utils.dates.NowFormatCache;
+import fr.milekat.utils.dates.RemainingTimeFormatter;
+import fr.milekat.utils.dates.TimeBreakdown;
 import org.junit.jupiter.api.Test;
 
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -89,6 +103,38 @@ public class DateMileKatTest {
         assertNotNull(DateMileKat.reamingToString(new Date()));
     }
 
+    @Test
+    void testRemainingToString() {
+        long remaining = ((2 * 24 + 3) * 60 + 4) * 60_000L + 5_500L;
+        String text = DateMileKat.remainingToString(new Date(System.currentTimeMillis() + remaining + 400));
+        assertTrue(text.equals("2jours 3h 4m 5s") || text.equals("2jours 3h 4m 6s"), text);
+        assertEquals("2jours 3h 4m 5s", RemainingTimeFormatter.FRENCH.format(remaining));
+        assertEquals("3h 5s", RemainingTimeFormatter.FRENCH.format(3 * 3_600_000L + 5_000L));
+        assertEquals("", RemainingTimeFormatter.FRENCH.format(999));
+        assertEquals("-1m -1s", RemainingTimeFormatter.FRENCH.format(-61_000L));
+    }
+
+    @Test
+    void testRemainingTimeFormatter() {
+        RemainingTimeFormatter formatter = RemainingTimeFormatter.of(" days", " hours", " min", " sec", ", ");
+        assertSame(formatter, RemainingTimeFormatter.of(" days", " hours", " min", " sec", ", "));
+        assertEquals("1 days, 30 min", formatter.format(86_400_000L + 1_800_000L));
+        StringBuilder builder = new StringBuilder("Ends in ");
+        assertSame(builder, RemainingTimeFormatter.ENGLISH.appendTo(builder, TimeBreakdown.of(90_061_000L)));
+        assertEquals("Ends in 1d 1h 1m 1s", builder.toString());
+        assertArrayEquals(new String[]{"1m", "2h", ""},
+                RemainingTimeFormatter.ENGLISH.formatAll(1_000L, 61_000L, 7_201_000L, 500L));
+    }
+
+    @Test
+    void testTimeBreakdown() {
+        TimeBreakdown breakdown = TimeBreakdown.between(1_000L, 1_000L + 90_061_042L);
+        assertEquals(new TimeBreakdown(90_061_042L, 1, 1, 1, 1, 42), breakdown);
+        assertFalse(breakdown.isOver());
+        assertTrue(TimeBreakdown.of(-5).isOver());
+        assertEquals(-1, TimeBreakdown.of(-61_000L).minutes());
+    }
+
 
     @Test
     void testParsePeriod() {
@@ -104,4 +150,173 @@ public class DateMileKatTest {
         assertNull(DateMileKat.parsePeriod(null));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testParsePeriodLenient() {
+        assertEquals(5400000L, DateMileKat.parsePeriod("1H 30M"));
+        assertEquals(3600000L, DateMileKat.parsePeriod("for 1h, then 5x"));
+        assertEquals(86400000L, DateMileKat.parsePeriod("1j"));
+        assertNull(DateMileKat.parsePeriod("99999999999999999999d"));
+    }
+
+    @Test
+    void testParsePeriodMillis() {
+        assertEquals(250L, DateMileKat.parsePeriodMillis("250ms"));
+        assertEquals(604800000L, DateMileKat.parsePeriodMillis("1w"));
+        assertEquals(2592000000L, DateMileKat.parsePeriodMillis("1mo"));
+        assertEquals(2595661500L, DateMileKat.parsePeriodMillis("1mo 1h 1m 1s 500ms"));
+        assertEquals(90000000L, DateMileKat.parsePeriodMillis("1D1H"));
+        assertEquals(0L, DateMileKat.parsePeriodMillis("0s"));
+        assertEquals(DateMileKat.INVALID_PERIOD, DateMileKat.parsePeriodMillis(null));
+        assertEquals(DateMileKat.INVALID_PERIOD, DateMileKat.parsePeriodMillis(""));
+        assertEquals(DateMileKat.INVALID_PERIOD, DateMileKat.parsePeriodMillis("12"));
+        assertEquals(DateMileKat.INVALID_PERIOD, DateMileKat.parsePeriodMillis("1x"));
+        assertEquals(DateMileKat.INVALID_PERIOD, DateMileKat.parsePeriodMillis("1h!"));
+        assertEquals(DateMileKat.INVALID_PERIOD, DateMileKat.parsePeriodMillis("9223372036854775807d"));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i * 1000L, DateMileKat.parsePeriodMillis(i + "s"));
+        }
+    }
+
+    @Test
+    void testInstantAndEpochOverloads() throws ParseException {
+        long millis = 1_700_000_123_456L;
+        Date date = new Date(millis);
+        assertEquals(DateMileKat.getDateCtm(date), DateMileKat.getDateCtm(Instant.ofEpochMilli(millis)));
+        assertEquals(DateMileKat.getDateSys(date), DateMileKat.getDateSys(millis));
+        assertEquals(DateMileKat.getDateEs(date), DateMileKat.getDateEs(millis));
+        assertEquals(millis, DateMileKat.getESStringInstant(DateMileKat.getDateEs(millis)).toEpochMilli());
+        assertEquals(millis - 456, DateMileKat.getCtmStringInstant(DateMileKat.getDateCtm(millis)).toEpochMilli());
+        assertEquals(millis - 456, DateMileKat.getSysStringInstant(DateMileKat.getDateSys(millis)).toEpochMilli());
+    }
+
+    @Test
+    void testInvalidDateThrowsParseException() {
+        assertThrows(ParseException.class, () -> DateMileKat.getCtmStringDate("not a date"));
+        assertThrows(ParseException.class, () -> DateMileKat.getSysStringDate(null));
+        assertThrows(ParseException.class, () -> DateMileKat.getESStringDate("2024-01-01"));
+    }
+
+    @Test
+    void testConcurrentFormatAndParse() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = 1_600_000_000_000L + t * 86_400_123L;
+                futures.add(executor.submit(() -> {
+                    DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+                    for (int i = 0; i < 2000; i++) {
+                        long millis = base + i * 3_600_017L;
+                        String formatted = DateMileKat.getDateEs(millis);
+                        assertEquals(df.format(new Date(millis)), formatted);
+                        assertEquals(millis, DateMileKat.getESStringDate(formatted).getTime());
+                        assertEquals(millis / 1000 * 1000,
+                                DateMileKat.getCtmStringDate(DateMileKat.getDateCtm(millis)).getTime());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCoarseClock() throws InterruptedException {
+        CoarseClock clock = new CoarseClock(1);
+        try (clock) {
+            long first = clock.millis();
+            assertTrue(Math.abs(System.currentTimeMillis() - first) < 1000);
+            Thread.sleep(50);
+            assertTrue(clock.millis() > first);
+        }
+        assertFalse(clock.isRunning());
+    }
+
+    @Test
+    void testUseClock() {
+        try {
+            DateMileKat.useClock(() -> 1_700_000_000_123L);
+            String now = DateMileKat.getDateEs();
+            assertEquals(DateMileKat.getDateEs(new Date(1_700_000_000_123L)), now);
+            assertSame(now, DateMileKat.getDateEs());
+        } finally {
+            DateMileKat.useClock(null);
+        }
+        assertNotEquals(DateMileKat.getDateEs(new Date(1_700_000_000_123L)), DateMileKat.getDateEs());
+    }
+
+    @Test
+    void testNowFormatCache() {
+        String[] patterns = {"yyyy-MM-dd'T'HH:mm:ss.SSSZ", "dd/MM/yyyy HH:mm:ss", "HH:mm:ss.SS", "ss.SSSSSS"};
+        for (String pattern : patterns) {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault());
+            NowFormatCache cache = new NowFormatCache(formatter);
+            for (long millis = 1_700_000_000_000L; millis < 1_700_000_003_000L; millis += 7) {
+                assertEquals(formatter.format(Instant.ofEpochMilli(millis)), cache.format(millis), pattern);
+            }
+            String text = cache.format(1_700_000_005_123L);
+            assertSame(text, cache.format(1_700_000_005_123L));
+        }
+    }
+
+    @Test
+    void testNowFormatMatchesCurrentDate() throws ParseException {
+        long before = System.currentTimeMillis();
+        long parsed = DateMileKat.getESStringDate(DateMileKat.getDateEs()).getTime();
+        assertTrue(Math.abs(parsed - before) < 1000);
+    }
+
+    @Test
+    void testEsDateCodecMatchesSimpleDateFormat() throws ParseException {
+        for (String zone : new String[]{"UTC", "Europe/Paris", "America/St_Johns", "Asia/Kathmandu"}) {
+            EsDateCodec codec = new EsDateCodec(ZoneId.of(zone));
+            DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+            df.setTimeZone(TimeZone.getTimeZone(zone));
+            for (long millis = -1_000_000_000_000L; millis < 4_000_000_000_000L; millis += 9_876_543_211L) {
+                String expected = df.format(new Date(millis));
+                assertEquals(expected, codec.format(millis), zone);
+                assertEquals(expected, codec.appendTo(new StringBuilder(">"), millis).substring(1), zone);
+                assertEquals(millis, codec.parse(expected), zone);
+                char[] chars = ("[" + expected + "]").toCharArray();
+                assertEquals(millis, codec.parse(chars, 1, EsDateCodec.LENGTH), zone);
+            }
+        }
+    }
+
+    @Test
+    void testEsDateCodecFallback() throws ParseException {
+        EsDateCodec codec = new EsDateCodec(ZoneId.of("UTC"));
+        assertEquals(1_700_000_000_123L, codec.parse("2023-11-14T22:13:20.123Z"));
+        assertEquals(1_700_000_000_000L, codec.parse("2023-11-14T23:13:20+01:00"));
+        assertEquals(1_700_000_000_123L, codec.parse("2023-11-14T22:13:20.123456Z"));
+        assertThrows(ParseException.class, () -> codec.parse("2023-02-30T22:13:20.123+0000"));
+        assertThrows(ParseException.class, () -> codec.parse("2023-11-14T24:13:20.123+0000"));
+        assertThrows(ParseException.class, () -> codec.parse("2023-11-14 22:13:20.123+0000"));
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date(300_000_000_000_000L)),
+                DateMileKat.getDateEs(300_000_000_000_000L));
+    }
+
+    @Test
+    void testFormatPerZoneAndLocale() {
+        long millis = 1_700_000_000_000L;
+        assertEquals("14 novembre 2023 23:13", DateMileKat.format(millis, "d MMMM yyyy HH:mm",
+                ZoneId.of("Europe/Paris"), Locale.FRENCH));
+        assertEquals("Tuesday, November 14, 2023 17:13", DateMileKat.format(new Date(millis), "EEEE, MMMM d, yyyy HH:mm",
+                ZoneId.of("America/New_York"), Locale.US));
+        assertSame(DateMileKat.getFormatter("HH:mm", ZoneId.of("UTC"), Locale.ROOT),
+                DateMileKat.getFormatter("HH:mm", ZoneId.of("UTC"), Locale.ROOT));
+        assertThrows(IllegalArgumentException.class, () -> DateMileKat.getFormatter("{", ZoneId.of("UTC"), Locale.ROOT));
+    }
+
+    @Test
+    void testDateFormatterCacheIsBounded() {
+        DateFormatterCache cache = new DateFormatterCache(4);
+        for (int i = 0; i < 20; i++) {
+            cache.get("'" + i + "' HH", ZoneId.of("UTC"), Locale.ROOT);
+            assertTrue(cache.size() <= cache.getMaxSize());
+        }
+    }
+}
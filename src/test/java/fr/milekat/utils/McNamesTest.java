@@ -1,11 +1,91 @@
 package fr.milekat.utils;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fr.milekat.utils.mcnames.CircuitBreaker;
+import fr.milekat.utils.mcnames.MojangResolver;
+import fr.milekat.utils.mcnames.NameBatcher;
+import fr.milekat.utils.mcnames.ProfileCache;
+import fr.milekat.utils.mcnames.ProfileCache.Profile;
+import fr.milekat.utils.mcnames.ProfileJsonReader;
+import fr.milekat.utils.mcnames.ProfileStore;
+import fr.milekat.utils.mcnames.RateLimiter;
+import fr.milekat.utils.mcnames.UuidCodec;
+import fr.milekat.utils.mcnames.UuidMap;
+import fr.milekat.utils.mcnames.exceptions.MojangResponseException;
+import fr.milekat.utils.mcnames.exceptions.MojangUnavailableException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class McNamesTest {
+    private static final String NOTCH_JSON = "{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\"}";
+
+    /**
+     * Starts a local stand-in for the Mojang API, knowing only Notch.
+     */
+    private static HttpServer startStub(AtomicInteger requests, CountDownLatch release) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/profiles/minecraft")) {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                if (body.contains("Error")) respond(exchange, 500, "");
+                else if (body.contains("Invalid")) respond(exchange, 400, "{\"errorMessage\":\"Invalid name\"}");
+                else respond(exchange, 200, body.toLowerCase().contains("\"notch\"") ? "[" + NOTCH_JSON + "]" : "[]");
+            } else if (path.equalsIgnoreCase("/users/profiles/minecraft/Notch")
+                    || path.equals("/user/profile/069a79f4-44e9-4726-a5be-fca90e38aaf5")) {
+                respond(exchange, 200, NOTCH_JSON);
+            } else if (path.endsWith("/Error")) {
+                respond(exchange, 500, "");
+            } else if (path.endsWith("/Busy")) {
+                respond(exchange, 429, "");
+            } else {
+                respond(exchange, 404, "{\"errorMessage\":\"Couldn't find any profile\"}");
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static String baseUrl(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
     @Test
     void testGetUuid() throws IOException {
         String name = "Notch";
@@ -21,4 +101,453 @@ public class McNamesTest {
         String actualName = McNames.getName(uuid);
         Assertions.assertEquals(expectedName, actualName);
     }
+
+    @Test
+    void testProfileCache() {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        ProfileCache cache = new ProfileCache(2, Duration.ofMinutes(10), Duration.ofMinutes(1), now::get);
+        Profile notch = new Profile("069a79f4-44e9-4726-a5be-fca90e38aaf5", "Notch");
+        cache.put(notch);
+        Assertions.assertSame(notch, cache.getByName("nOTCH"));
+        Assertions.assertSame(notch, cache.getByUuid("069A79F444E94726A5BEFCA90E38AAF5"));
+        Assertions.assertNull(cache.getByName("jeb_"));
+
+        //  Lookups that found nothing expire sooner
+        cache.putMissingName("NoSuchPlayer");
+        Assertions.assertSame(ProfileCache.MISSING, cache.getByName("nosuchplayer"));
+        now.addAndGet(Duration.ofMinutes(1).toMillis());
+        Assertions.assertNull(cache.getByName("NoSuchPlayer"));
+        Assertions.assertSame(notch, cache.getByName("Notch"));
+        now.addAndGet(Duration.ofMinutes(9).toMillis());
+        Assertions.assertNull(cache.getByName("Notch"));
+        Assertions.assertNull(cache.getByUuid(notch.uuid()));
+
+        //  Least recently used entries are evicted
+        cache.put(new Profile("00000000-0000-0000-0000-000000000001", "A"));
+        cache.put(new Profile("00000000-0000-0000-0000-000000000002", "B"));
+        Assertions.assertNotNull(cache.getByName("A"));
+        cache.put(new Profile("00000000-0000-0000-0000-000000000003", "C"));
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNotNull(cache.getByName("A"));
+        Assertions.assertNull(cache.getByName("B"));
+
+        cache.invalidateName("A");
+        Assertions.assertNull(cache.getByUuid("00000000-0000-0000-0000-000000000001"));
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> cache.put(ProfileCache.MISSING));
+    }
+
+    @Test
+    void testCachedLookups() throws IOException {
+        ProfileCache previous = McNames.getCache();
+        try {
+            ProfileCache cache = new ProfileCache();
+            McNames.setCache(cache);
+            cache.put(new Profile("069a79f4-44e9-4726-a5be-fca90e38aaf5", "Notch"));
+            cache.putMissingName("NoSuchPlayer");
+            cache.putMissingUuid("00000000000000000000000000000000");
+            Assertions.assertEquals("069a79f4-44e9-4726-a5be-fca90e38aaf5", McNames.getUuid("notch"));
+            Assertions.assertEquals("Notch", McNames.getName("069a79f444e94726a5befca90e38aaf5"));
+            Assertions.assertEquals("invalid name", McNames.getUuid("NoSuchPlayer"));
+            Assertions.assertEquals("invalid uuid", McNames.getName("00000000-0000-0000-0000-000000000000"));
+        } finally {
+            McNames.setCache(previous);
+        }
+    }
+
+    @Test
+    void testAsyncLookups() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startStub(requests, new CountDownLatch(0));
+        ProfileCache previousCache = McNames.getCache();
+        MojangResolver previousResolver = McNames.getResolver();
+        try {
+            McNames.setCache(new ProfileCache());
+            McNames.setResolver(new MojangResolver(baseUrl(server) + "/"));
+            Assertions.assertEquals("069a79f4-44e9-4726-a5be-fca90e38aaf5",
+                    McNames.getUuidAsync("Notch").get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("Notch", McNames.getNameAsync("069a79f4-44e9-4726-a5be-fca90e38aaf5")
+                    .get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("invalid name", McNames.getUuid("Nobody"));
+            Assertions.assertEquals("invalid name", McNames.getUuid("nobody"));
+            Assertions.assertEquals("069a79f4-44e9-4726-a5be-fca90e38aaf5", McNames.getUuid("notch"));
+            //  The UUID lookup was served by the profile cached by the name lookup
+            Assertions.assertEquals(2, requests.get());
+
+            IOException exception = Assertions.assertThrows(IOException.class, () -> McNames.getUuid("Error"));
+            Assertions.assertTrue(exception.getMessage().contains("500"));
+            Assertions.assertThrows(IOException.class, () -> McNames.getUuid("Error"));
+            Assertions.assertEquals(4, requests.get());
+        } finally {
+            McNames.setCache(previousCache);
+            McNames.setResolver(previousResolver);
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testCoalescedLookups() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = startStub(requests, release);
+        try {
+            MojangResolver resolver = new MojangResolver(baseUrl(server));
+            CompletableFuture<Profile> first = resolver.lookupName("Notch");
+            CompletableFuture<Profile> second = resolver.lookupName("NOTCH");
+            Assertions.assertEquals(1, resolver.getInFlightCount());
+            release.countDown();
+            Assertions.assertEquals("Notch", first.get(5, TimeUnit.SECONDS).name());
+            Assertions.assertEquals(first.get(), second.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, requests.get());
+            Assertions.assertEquals(0, resolver.getInFlightCount());
+            Assertions.assertEquals("Notch", resolver.lookupName("Notch").get(5, TimeUnit.SECONDS).name());
+            Assertions.assertEquals(2, requests.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testBatchedLookups() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startStub(requests, new CountDownLatch(0));
+        ProfileCache previousCache = McNames.getCache();
+        MojangResolver previousResolver = McNames.getResolver();
+        try {
+            McNames.setCache(new ProfileCache());
+            McNames.setResolver(new MojangResolver(baseUrl(server)));
+            Map<String, String> uuids = McNames.getUuidsAsync(List.of("Notch", "Nobody", "notch", "Dinnerbone"))
+                    .get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(List.of("Notch", "Nobody", "notch", "Dinnerbone"), List.copyOf(uuids.keySet()));
+            Assertions.assertEquals("069a79f4-44e9-4726-a5be-fca90e38aaf5", uuids.get("notch"));
+            Assertions.assertEquals("invalid name", uuids.get("Dinnerbone"));
+            Assertions.assertEquals(1, requests.get());
+            Assertions.assertEquals("invalid name", McNames.getUuid("Nobody"));
+            Assertions.assertEquals(1, requests.get());
+        } finally {
+            McNames.setCache(previousCache);
+            McNames.setResolver(previousResolver);
+            server.stop(0);
+        }
+
+        //  Batches are sent when full, and a failed bulk request fails the whole batch
+        requests.set(0);
+        server = startStub(requests, new CountDownLatch(0));
+        try (NameBatcher batcher = new NameBatcher(new MojangResolver(baseUrl(server)), Duration.ofMinutes(1))) {
+            CompletableFuture<Profile> notch = batcher.lookup("Notch");
+            CompletableFuture<Profile> error = batcher.lookup("Error");
+            Assertions.assertEquals(2, batcher.getPendingCount());
+            List<CompletableFuture<Profile>> players = new ArrayList<>();
+            for (int i = 0; i < 8; i++) players.add(batcher.lookup("Player" + i));
+            Assertions.assertEquals(0, batcher.getPendingCount());
+            players.add(notch);
+            players.add(error);
+            for (CompletableFuture<Profile> player : players) {
+                Exception exception = Assertions.assertThrows(Exception.class, () -> player.get(5, TimeUnit.SECONDS));
+                MojangResponseException cause = Assertions.assertInstanceOf(MojangResponseException.class,
+                        exception.getCause());
+                Assertions.assertEquals(500, cause.getStatus());
+            }
+            Assertions.assertEquals(1, requests.get());
+        } finally {
+            server.stop(0);
+        }
+
+        //  Batches rejected by the API fall back to single lookups
+        requests.set(0);
+        server = startStub(requests, new CountDownLatch(0));
+        try (NameBatcher batcher = new NameBatcher(new MojangResolver(baseUrl(server)), Duration.ofMinutes(1))) {
+            CompletableFuture<Profile> notch = batcher.lookup("Notch");
+            CompletableFuture<Profile> invalid = batcher.lookup("Invalid");
+            batcher.close();
+            Assertions.assertEquals("Notch", notch.get(5, TimeUnit.SECONDS).name());
+            Assertions.assertNull(invalid.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(3, requests.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testProfileStore(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("profiles.db");
+        AtomicLong now = new AtomicLong(1_000_000L);
+        Profile notch = new Profile("069a79f4-44e9-4726-a5be-fca90e38aaf5", "Notch");
+        try (ProfileStore store = new ProfileStore(file, Duration.ofDays(1), now::get)) {
+            Assertions.assertTrue(store.put(notch));
+            Assertions.assertTrue(store.put(new Profile("00000000-0000-0000-0000-000000000001", "Old")));
+            now.addAndGet(1000);
+            Assertions.assertTrue(store.put(new Profile("00000000-0000-0000-0000-000000000001", "Renamed")));
+            Assertions.assertFalse(store.put(new Profile("00000000-0000-0000-0000-000000000002", "NameLongerThan16_")));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> store.put(new Profile("nope", "Bad")));
+            Assertions.assertEquals(notch, store.getByName("NOTCH").profile());
+            Assertions.assertEquals(1_000_000L, store.getByUuid("069a79f444e94726a5befca90e38aaf5").writtenAt());
+            Assertions.assertNull(store.getByName("Old"));
+            Assertions.assertEquals("Renamed", store.getByUuid("00000000-0000-0000-0000-000000000001").profile().name());
+            Assertions.assertNull(store.getByUuid("not a uuid"));
+            Assertions.assertEquals(2, store.size());
+            Assertions.assertEquals(3, store.getRecordCount());
+        }
+
+        //  Profiles and their write times survive a restart, and outdated records are compacted
+        try (ProfileStore store = new ProfileStore(file, Duration.ofDays(1), now::get)) {
+            Assertions.assertEquals(notch, store.getByName("notch").profile());
+            Assertions.assertNull(store.getByName("Old"));
+            store.compact();
+            Assertions.assertEquals(2, store.getRecordCount());
+            Assertions.assertEquals("Renamed", store.getByUuid("00000000000000000000000000000001").profile().name());
+            now.set(1_000_000L + Duration.ofDays(1).toMillis());
+            Assertions.assertNull(store.getByName("Notch"));
+            Assertions.assertNotNull(store.getByName("Renamed"));
+            store.compact();
+            Assertions.assertEquals(1, store.getRecordCount());
+            for (int i = 0; i < 3000; i++) store.put(new Profile(new UUID(7, i % 1500).toString(), "P" + i));
+            Assertions.assertEquals(1501, store.size());
+            Assertions.assertEquals("P2999", store.getByUuid(new UUID(7, 1499).toString()).profile().name());
+            Assertions.assertNull(store.getByName("P1499"));
+        }
+        try (ProfileStore store = new ProfileStore(file, Duration.ofDays(1), now::get)) {
+            Assertions.assertEquals(1501, store.size());
+            Assertions.assertEquals("P2000", store.getByUuid(new UUID(7, 500).toString()).profile().name());
+        }
+
+        //  Expired records trigger a background compaction too
+        try (ProfileStore store = new ProfileStore(directory.resolve("expiring.db"), Duration.ofDays(1), now::get)) {
+            for (int i = 0; i < 1024; i++) store.put(new Profile(new UUID(8, i).toString(), "E" + i));
+            now.addAndGet(Duration.ofDays(1).toMillis());
+            for (int i = 0; i < 1024; i++) store.put(new Profile(new UUID(9, i).toString(), "F" + i));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (store.getRecordCount() > 1024 && System.nanoTime() < deadline) Thread.sleep(10);
+            Assertions.assertEquals(1024, store.getRecordCount());
+            Assertions.assertEquals("F1023", store.getByUuid(new UUID(9, 1023).toString()).profile().name());
+            Assertions.assertNull(store.getStaleByName("E0"));
+
+            //  Records appended while compacting are kept
+            CompletableFuture<Void> writes = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 5000; i++) store.put(new Profile(new UUID(10, i % 1000).toString(), "G" + i));
+            });
+            while (!writes.isDone()) store.compact();
+            writes.join();
+            store.compact();
+            Assertions.assertEquals(2024, store.getRecordCount());
+            for (int i = 0; i < 1000; i++) {
+                Assertions.assertEquals("G" + (4000 + i), store.getByUuid(new UUID(10, i).toString()).profile().name());
+            }
+        }
+
+        Path notAStore = directory.resolve("other.db");
+        Files.writeString(notAStore, "Hello there, this is not a store");
+        Assertions.assertThrows(IOException.class, () -> new ProfileStore(notAStore));
+    }
+
+    @Test
+    void testStoredLookups(@TempDir Path directory) throws IOException {
+        ProfileCache previousCache = McNames.getCache();
+        try (ProfileStore store = new ProfileStore(directory.resolve("profiles.db"))) {
+            //  Stored longer ago than the cache TTL, but still valid in the store
+            store.put(new Profile("069a79f4-44e9-4726-a5be-fca90e38aaf5", "Notch"),
+                    System.currentTimeMillis() - Duration.ofHours(2).toMillis());
+            McNames.setCache(new ProfileCache());
+            McNames.setStore(store);
+            Assertions.assertEquals("069a79f4-44e9-4726-a5be-fca90e38aaf5", McNames.getUuid("notch"));
+            McNames.setCache(new ProfileCache());
+            Assertions.assertEquals("Notch", McNames.getName("069a79f4-44e9-4726-a5be-fca90e38aaf5"));
+            Assertions.assertEquals("Notch", McNames.getCache().getByName("Notch").name());
+            Assertions.assertEquals("069a79f4-44e9-4726-a5be-fca90e38aaf5",
+                    McNames.getCache().getByUuid("069a79f4-44e9-4726-a5be-fca90e38aaf5").uuid());
+        } finally {
+            McNames.setCache(previousCache);
+            McNames.setStore(null);
+        }
+    }
+
+    @Test
+    void testRateLimiterAndCircuitBreaker() {
+        AtomicLong nanos = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(2, Duration.ofSeconds(1), nanos::get);
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertFalse(limiter.tryAcquire());
+        nanos.addAndGet(Duration.ofMillis(499).toNanos());
+        Assertions.assertFalse(limiter.tryAcquire());
+        nanos.addAndGet(Duration.ofMillis(1).toNanos());
+        Assertions.assertTrue(limiter.tryAcquire());
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        Assertions.assertEquals(2, limiter.getAvailable());
+
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofSeconds(30), nanos::get);
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        Assertions.assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.allowRequest());
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        Assertions.assertTrue(breaker.allowRequest());
+        Assertions.assertFalse(breaker.allowRequest());
+        breaker.recordFailure();
+        Assertions.assertFalse(breaker.allowRequest());
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        Assertions.assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void testUnhealthyApi() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = startStub(requests, new CountDownLatch(0));
+        HttpServer slowServer = startStub(new AtomicInteger(), release);
+        ProfileCache previousCache = McNames.getCache();
+        MojangResolver previousResolver = McNames.getResolver();
+        try {
+            //  Timeouts fail the lookup
+            MojangResolver slow = MojangResolver.builder().baseUrl(baseUrl(slowServer))
+                    .requestTimeout(Duration.ofMillis(200)).build();
+            ExecutionException timeout = Assertions.assertThrows(ExecutionException.class,
+                    () -> slow.lookupName("Notch").get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(IOException.class, timeout.getCause());
+            Assertions.assertEquals(1, slow.getStats().failures());
+
+            //  Too many failures open the circuit, and expired profiles are served meanwhile
+            AtomicLong now = new AtomicLong(System.currentTimeMillis());
+            ProfileCache cache = new ProfileCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1), now::get);
+            cache.put(new Profile("00000000-0000-0000-0000-00000000000b", "Busy"));
+            now.addAndGet(Duration.ofMinutes(2).toMillis());
+            McNames.setCache(cache);
+            MojangResolver resolver = MojangResolver.builder().baseUrl(baseUrl(server))
+                    .circuitBreaker(new CircuitBreaker(2, Duration.ofMinutes(1)))
+                    .rateLimiter(new RateLimiter(4, Duration.ofHours(1)))
+                    .build();
+            McNames.setResolver(resolver);
+            long staleBefore = McNames.getServedStaleCount();
+            Assertions.assertEquals("00000000-0000-0000-0000-00000000000b", McNames.getUuid("Busy"));
+            Assertions.assertEquals("00000000-0000-0000-0000-00000000000b", McNames.getUuid("Busy"));
+            Assertions.assertEquals(CircuitBreaker.State.OPEN, resolver.getCircuitBreaker().getState());
+            MojangUnavailableException open = Assertions.assertThrows(MojangUnavailableException.class,
+                    () -> McNames.getUuid("Notch"));
+            Assertions.assertEquals(MojangUnavailableException.Reason.CIRCUIT_OPEN, open.getReason());
+            Assertions.assertEquals("Busy", McNames.getName("0000000000000000000000000000000b"));
+            Assertions.assertEquals(2, requests.get());
+            Assertions.assertEquals(new MojangResolver.Stats(2, 2, 0, 2), resolver.getStats());
+            Assertions.assertEquals(staleBefore + 3, McNames.getServedStaleCount());
+
+            //  Lookups over the rate are throttled
+            MojangResolver limited = MojangResolver.builder().baseUrl(baseUrl(server))
+                    .rateLimiter(new RateLimiter(1, Duration.ofHours(1))).build();
+            Assertions.assertEquals("Notch", limited.lookupName("Notch").get(5, TimeUnit.SECONDS).name());
+            ExecutionException throttled = Assertions.assertThrows(ExecutionException.class,
+                    () -> limited.lookupName("Notch").get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(MojangUnavailableException.Reason.THROTTLED,
+                    ((MojangUnavailableException) throttled.getCause()).getReason());
+            Assertions.assertEquals(1, limited.getStats().throttled());
+        } finally {
+            McNames.setCache(previousCache);
+            McNames.setResolver(previousResolver);
+            release.countDown();
+            server.stop(0);
+            slowServer.stop(0);
+        }
+    }
+
+    @Test
+    void testUuidCodec() {
+        UUID uuid = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+        Assertions.assertEquals(uuid.toString(), UuidCodec.format(uuid));
+        Assertions.assertEquals("069a79f444e94726a5befca90e38aaf5",
+                UuidCodec.formatDashless(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        Assertions.assertEquals(uuid.toString(), UuidCodec.toDashed("069A79F444E94726A5BEFCA90E38AAF5"));
+        Assertions.assertEquals("069a79f444e94726a5befca90e38aaf5", UuidCodec.toDashless(uuid.toString()));
+        Assertions.assertEquals(uuid, UuidCodec.parse("069a79f444e94726a5befca90e38aaf5"));
+        Assertions.assertEquals(uuid, UuidCodec.parse(uuid.toString()));
+        for (int i = 0; i < 100; i++) {
+            UUID random = UUID.randomUUID();
+            Assertions.assertEquals(random.toString(), UuidCodec.format(random));
+            Assertions.assertEquals(random, UuidCodec.parse(UuidCodec.toDashless(random.toString())));
+        }
+        Assertions.assertTrue(UuidCodec.isValid("069a79f444e94726a5befca90e38aaf5"));
+        Assertions.assertFalse(UuidCodec.isValid("069a79f444e94726a5befca90e38aaf"));
+        Assertions.assertFalse(UuidCodec.isValid("069a79f4-44e9-4726-a5be-fca90e38aafg"));
+        Assertions.assertFalse(UuidCodec.isValid("069a79f4444e9-4726-a5be-fca90e38aaf5"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> UuidCodec.parse("069a79f444e94726a5befca90e38aaf"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> UuidCodec.parse("069a79f4-44e9-4726-a5be+fca90e38aaf5"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> UuidCodec.toDashed("069a79f444e94726a5befca90e38aa\u00e9f"));
+    }
+
+    @Test
+    void testProfileJsonReader() throws IOException {
+        Assertions.assertEquals(new Profile("069a79f4-44e9-4726-a5be-fca90e38aaf5", "Notch"),
+                ProfileJsonReader.readProfile(new StringReader(NOTCH_JSON)));
+        Assertions.assertNull(ProfileJsonReader.readProfile(new StringReader(" \n")));
+        //  Other fields are skipped, whatever their type
+        Profile profile = ProfileJsonReader.readProfile(new StringReader("""
+                {
+                  "legacy": true,
+                  "properties": [{"name": "textures", "value": "e30=", "signature": null}, [], {}],
+                  "name": "Jeb_\\u00e9\\"",
+                  "demo": false,
+                  "id": "853c80ef3c3749fdaa49938b674adae6",
+                  "profileActions": [ -1.5e3 ]
+                }"""));
+        Assertions.assertEquals(new Profile("853c80ef-3c37-49fd-aa49-938b674adae6", "Jeb_\u00e9\""), profile);
+
+        List<Profile> profiles = new ArrayList<>();
+        String other = NOTCH_JSON.replace("Notch", "Other");
+        ProfileJsonReader.readProfiles(new StringReader("[" + NOTCH_JSON + ", " + other + "]"), profiles::add);
+        Assertions.assertEquals(List.of("Notch", "Other"), profiles.stream().map(Profile::name).toList());
+        profiles.clear();
+        ProfileJsonReader.readProfiles(new StringReader("[ ]"), profiles::add);
+        Assertions.assertTrue(profiles.isEmpty());
+        Assertions.assertThrows(IOException.class,
+                () -> ProfileJsonReader.readProfiles(new StringReader("[" + NOTCH_JSON), profiles::add));
+
+        //  Malformed bodies fail
+        for (String body : List.of("{\"id\":\"069a79f444e94726a5befca90e38aaf5\"}",
+                "{\"id\":\"nope\",\"name\":\"Notch\"}", NOTCH_JSON.substring(0, 20), NOTCH_JSON + "}",
+                "[" + NOTCH_JSON + "]", "{\"name\" \"Notch\"}")) {
+            Assertions.assertThrows(IOException.class,
+                    () -> ProfileJsonReader.readProfile(new StringReader(body)), body);
+        }
+    }
+
+    @Test
+    void testUuidMap() {
+        UuidMap<String> map = new UuidMap<>();
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            Assertions.assertNull(map.put(uuid, "player" + i));
+        }
+        Assertions.assertEquals(1000, map.size());
+        Assertions.assertEquals("player0", map.put(uuids.get(0), "first"));
+        Assertions.assertEquals("first", map.get(uuids.get(0)));
+        Assertions.assertEquals("player1", map.get(uuids.get(1).toString()));
+        Assertions.assertEquals("player2", map.get(UuidCodec.toDashless(uuids.get(2).toString())));
+        Assertions.assertNull(map.get(UUID.randomUUID()));
+
+        //  Removals keep the other entries reachable
+        for (int i = 0; i < 1000; i += 2) Assertions.assertNotNull(map.remove(uuids.get(i)));
+        Assertions.assertNull(map.remove(uuids.get(0)));
+        Assertions.assertEquals(500, map.size());
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(i % 2 == 0 ? null : "player" + i, map.get(uuids.get(i)));
+        }
+        AtomicInteger count = new AtomicInteger();
+        map.forEach((mostBits, leastBits, value) -> {
+            Assertions.assertEquals(value, map.get(mostBits, leastBits));
+            count.incrementAndGet();
+        });
+        Assertions.assertEquals(500, count.get());
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertFalse(map.containsKey(uuids.get(1)));
+    }
 }
@@ -1,5 +1,8 @@
 package fr.milekat.utils;
 
+import fr.milekat.utils.mctools.ColorTranslator;
+import fr.milekat.utils.mctools.ComponentTemplate;
+import fr.milekat.utils.mctools.TabCompletionIndex;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -7,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class McToolsTest {
 
@@ -31,5 +35,83 @@ public class McToolsTest {
         Assertions.assertEquals(expected, actual);
     }
 
-}
+    @Test
+    void testTabCompletionIndex() {
+        TabCompletionIndex index = new TabCompletionIndex(Arrays.asList("Notch", "jeb_", "Dinnerbone", "notchy", "Grumm"));
+        Assertions.assertEquals(5, index.size());
+        Assertions.assertEquals(Arrays.asList("Notch", "notchy"), index.complete("NOT"));
+        Assertions.assertEquals(Collections.singletonList("Notch"), McTools.getTabArgs("no", index, 1));
+        Assertions.assertEquals(5, index.complete("").size());
+        Assertions.assertTrue(index.complete("z").isEmpty());
+
+        Assertions.assertTrue(index.add("Nokia"));
+        Assertions.assertFalse(index.add("Nokia"));
+        Assertions.assertEquals(Arrays.asList("Nokia", "Notch", "notchy"), index.complete("no"));
+        Assertions.assertTrue(index.remove("Notch"));
+        Assertions.assertFalse(index.remove("notch"));
+        Assertions.assertFalse(index.contains("Notch"));
+        Assertions.assertEquals(Arrays.asList("Nokia", "notchy"), index.complete("N"));
+
+        index.addAll(Arrays.asList("notchy", "Zed", "alpha"));
+        Assertions.assertEquals(7, index.size());
+        Assertions.assertEquals(Collections.singletonList("Zed"), index.complete("z"));
+        index.clear();
+        Assertions.assertEquals(0, index.size());
+    }
+
+    @Test
+    void testMinecraftColorCodes() {
+        Assertions.assertEquals("§aHello §lWorld§r!", McTools.minecraftColorCodes("&AHello &lWorld&r!"));
+        Assertions.assertEquals("&§a & &z&", McTools.minecraftColorCodes("&&a & &z&"));
+        Assertions.assertEquals("§x§f§f§0§0§a§aHex §x§1§2§3§4§5§6legacy",
+                McTools.minecraftColorCodes("&#FF00aaHex &x&1&2&3&4&5&6legacy"));
+        Assertions.assertEquals("&#12345G §x", McTools.minecraftColorCodes("&#12345G &x"));
+        String plain = "No colour here";
+        Assertions.assertSame(plain, McTools.minecraftColorCodes(plain));
+    }
 
+    @Test
+    void testColorTranslatorCache() {
+        ColorTranslator translator = new ColorTranslator(2);
+        String line = translator.translate("&6Score: &e42");
+        Assertions.assertEquals("§6Score: §e42", line);
+        Assertions.assertSame(line, translator.translate("&6Score: &e42"));
+        translator.translate("&a1");
+        translator.translate("&a2");
+        translator.translate("&a3");
+        Assertions.assertTrue(translator.getCacheSize() <= 2);
+        Assertions.assertEquals(0, ColorTranslator.DEFAULT.getCacheSize());
+        Assertions.assertEquals("> §c!", ColorTranslator.appendTo(new StringBuilder("> "), "&c!").toString());
+    }
+
+    @Test
+    void testJsonComponent() {
+        Assertions.assertEquals("{\"text\":\"\"}", ComponentTemplate.compile("").getJson());
+        Assertions.assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"Plain \\\"text\\\"\"}]}",
+                ComponentTemplate.compile("Plain \"text\"").getJson());
+        Assertions.assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"Hi \",\"color\":\"gold\"},"
+                        + "{\"text\":\"all\",\"color\":\"gold\",\"bold\":true,\"italic\":true},"
+                        + "{\"text\":\" hex\",\"color\":\"#ff00aa\"},{\"text\":\" reset\"}]}",
+                ComponentTemplate.compile("&6Hi &l&oall&#FF00AA hex&r reset").getJson());
+        Assertions.assertEquals(ComponentTemplate.compile("§x§1§2§3§4§5§6a").getJson(),
+                ComponentTemplate.compile("&#123456a").getJson());
+
+        ComponentTemplate template = McTools.getJsonComponent("&aWelcome &e{player}&a, {count} {not a slot}");
+        Assertions.assertSame(template, McTools.getJsonComponent("&aWelcome &e{player}&a, {count} {not a slot}"));
+        Assertions.assertEquals(List.of("player", "count"), template.getPlaceholders());
+        Assertions.assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"Welcome \",\"color\":\"green\"},"
+                        + "{\"text\":\"Al\\\"\\\\x\\n\",\"color\":\"yellow\"},"
+                        + "{\"text\":\", {count} {not a slot}\",\"color\":\"green\"}]}",
+                template.render("player", "Al\"\\x\n"));
+        Assertions.assertEquals(template.render("player", "&cNotch", "count", 3),
+                template.render(Map.of("player", "&cNotch", "count", 3)));
+        Assertions.assertTrue(template.render("player", "&cNotch").contains("\"text\":\"&cNotch\""));
+        Assertions.assertEquals(template.getJson(), template.render());
+
+        ComponentTemplate constant = ComponentTemplate.compile("&cNo slot");
+        Assertions.assertFalse(constant.hasPlaceholders());
+        Assertions.assertSame(constant.getJson(), constant.render("player", "Notch"));
+        Assertions.assertEquals(McTools.getJsonComponent("&cHi {p}").render("p", "x"),
+                McTools.toJsonComponent("&cHi {p}", "p", "x"));
+    }
+}
@@ -1,12 +1,24 @@
 package fr.milekat.utils;
 
+import fr.milekat.utils.tools.IdGenerator;
+import fr.milekat.utils.tools.StringValidator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
 
 public class ToolsTest {
 
@@ -24,6 +36,31 @@ public class ToolsTest {
         String input2 = "abc!@#";
         Assertions.assertTrue(Tools.isAlphaNumericExtended(input1));
         Assertions.assertFalse(Tools.isAlphaNumericExtended(input2));
+        Assertions.assertTrue(Tools.isAlphaNumericExtended(""));
+        Assertions.assertFalse(Tools.isAlphaNumericExtended("Crème brûlée"));
+        Assertions.assertTrue(Tools.isAlphaNumericExtended("Une fée (été)\t_-ç"));
+        Assertions.assertFalse(Tools.isAlphaNumericExtended(null));
+        Assertions.assertFalse(Tools.isAlphaNumericExtended("É"));
+    }
+
+    @Test
+    public void testStringValidator() {
+        StringValidator username = StringValidator.builder().letters().digits().chars("_").length(3, 16).build();
+        Assertions.assertTrue(username.test("Mile_Kat42"));
+        Assertions.assertFalse(username.test("ab"));
+        Assertions.assertFalse(username.test("seventeen_chars_x"));
+        Assertions.assertFalse(username.test("Mile Kat"));
+        Assertions.assertEquals(4, username.findInvalid("Mile Kat"));
+        Assertions.assertEquals(-1, username.findInvalid("MileKat"));
+        Assertions.assertTrue(username.validateAll(List.of("Notch", "jeb_", "Dinnerbone")));
+        Assertions.assertFalse(username.validateAll(List.of("Notch", "jeb!", "Dinnerbone")));
+
+        StringValidator emojis = StringValidator.builder().chars("\uD83D\uDE00a").build();
+        Assertions.assertTrue(emojis.test("a\uD83D\uDE00a"));
+        Assertions.assertFalse(emojis.test("\uD83D"));
+        Assertions.assertFalse(emojis.test("\uD83D\uDE01"));
+        Assertions.assertTrue(emojis.isAllowed(0x1F600));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> StringValidator.builder().range('z', 'a'));
     }
 
     @Test
@@ -48,6 +85,46 @@ public class ToolsTest {
         int length = 10;
         String randomString = Tools.getRandomString(length);
         Assertions.assertEquals(length, randomString.length());
+        Assertions.assertTrue(StringValidator.builder().letters().digits().build().test(Tools.getRandomString(500)));
+        Assertions.assertEquals("", Tools.getRandomString(0));
+        Assertions.assertTrue(IdGenerator.randomString(50, "ab").matches("[ab]{50}"));
+    }
+
+    @Test
+    public void testTimeOrderedIds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 5000; i++) ids.add(IdGenerator.timeOrdered());
+                    return ids;
+                }));
+            }
+            Set<String> prefixes = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                List<String> ids = future.get(30, TimeUnit.SECONDS);
+                for (int i = 0; i < ids.size(); i++) {
+                    Assertions.assertEquals(16, ids.get(i).length());
+                    Assertions.assertTrue(prefixes.add(ids.get(i).substring(0, 11)));
+                    if (i > 0) Assertions.assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFastUuid() {
+        Set<UUID> uuids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = IdGenerator.fastUuid();
+            Assertions.assertEquals(4, uuid.version());
+            Assertions.assertEquals(2, uuid.variant());
+            Assertions.assertTrue(uuids.add(uuid));
+        }
     }
 
     @Test
@@ -76,5 +153,33 @@ public class ToolsTest {
         Assertions.assertArrayEquals(reference, result);
     }
 
-}
+    @Test
+    public void testToByteArrayFromFile(@TempDir Path directory) throws IOException {
+        byte[] content = new byte[100_000];
+        new Random(42).nextBytes(content);
+        Path file = Files.write(directory.resolve("data.bin"), content);
+        Assertions.assertArrayEquals(content, Tools.toByteArray(file));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(99_990);
+            Assertions.assertArrayEquals(Arrays.copyOfRange(content, 99_990, 100_000), Tools.toByteArray(channel));
+        }
+        Assertions.assertEquals(0, Tools.toByteArray(Files.write(directory.resolve("empty"), new byte[0])).length);
+    }
+
+    @Test
+    public void testToByteBuffer(@TempDir Path directory) throws IOException {
+        byte[] small = "small file".getBytes();
+        ByteBuffer smallBuffer = Tools.toByteBuffer(Files.write(directory.resolve("small"), small));
+        Assertions.assertTrue(smallBuffer.isReadOnly());
+        Assertions.assertEquals(ByteBuffer.wrap(small), smallBuffer);
 
+        byte[] large = new byte[Tools.MAP_THRESHOLD + 123];
+        new Random(7).nextBytes(large);
+        //  A mapped file cannot be deleted on Windows until its buffer is garbage collected, so it is left behind there
+        Path largeFile = OS.WINDOWS.isCurrentOs() ? Files.createTempFile("large", ".bin") : directory.resolve("large");
+        ByteBuffer largeBuffer = Tools.toByteBuffer(Files.write(largeFile, large));
+        Assertions.assertInstanceOf(MappedByteBuffer.class, largeBuffer);
+        Assertions.assertEquals(0, largeBuffer.position());
+        Assertions.assertEquals(ByteBuffer.wrap(large), largeBuffer);
+    }
+}